@@ -0,0 +1,45 @@
+package com.solutionrh;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import com.solutionrh.service.FileStorageService;
+
+import jakarta.servlet.MultipartConfigElement;
+
+/**
+ * Configuration de la réception des fichiers multipart.
+ * Les parties sont écrites dans un répertoire temporaire sous file.upload-dir : le dépôt d'un document
+ * (MultipartFile.transferTo(File)) est alors un simple renommage sur le même volume, sans seconde copie.
+ * Les limites spring.servlet.multipart.max-file-size et max-request-size sont appliquées par le conteneur
+ * pendant la lecture du flux : un envoi trop volumineux est interrompu dès le dépassement.
+ */
+@Configuration
+public class UploadConfig {
+
+    public static final String MULTIPART_DIR = "multipart";
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties multipartProperties,
+                                                         @Value("${file.upload-dir}") String uploadDir) {
+        if (!StringUtils.hasText(multipartProperties.getLocation())) {
+            Path location = Paths.get(uploadDir, FileStorageService.STAGING_DIR, MULTIPART_DIR).toAbsolutePath();
+            try {
+                Files.createDirectories(location);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Impossible de créer le répertoire multipart " + location, e);
+            }
+            multipartProperties.setLocation(location.toString());
+        }
+        return multipartProperties.createMultipartConfig();
+    }
+}
@@ -1,34 +1,250 @@
 package com.solutionrh.controller;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.solutionrh.dao.DocumentProcessingRepository;
 import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.dto.CursorPage;
+import com.solutionrh.dto.EmployerFilter;
+import com.solutionrh.dto.EmployerSearchHitDto;
+import com.solutionrh.dto.EmployerSummaryDto;
+import com.solutionrh.exception.ResourceNotFoundException;
+import com.solutionrh.model.DocumentProcessing;
 import com.solutionrh.model.Employer;
+import com.solutionrh.service.DocumentProcessor;
+import com.solutionrh.service.DocumentTransferService;
+import com.solutionrh.service.EmployerExportService;
+import com.solutionrh.service.EmployerNameIndex;
+import com.solutionrh.service.EmployerSearchService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/api/employers")
 public class EmployerController {
 
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final EmployerRepository employerRepository;
-    public EmployerController(EmployerRepository employerRepository) {
+    private final DocumentTransferService documentTransferService;
+    private final DocumentProcessingRepository documentProcessingRepository;
+    private final EmployerSearchService employerSearchService;
+    private final EmployerNameIndex employerNameIndex;
+    private final EmployerExportService employerExportService;
+
+    @Value("${employers.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${employers.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${employers.name-index.default-limit:20}")
+    private int defaultSearchSize;
+
+    public EmployerController(EmployerRepository employerRepository,
+                              DocumentTransferService documentTransferService,
+                              DocumentProcessingRepository documentProcessingRepository,
+                              EmployerSearchService employerSearchService,
+                              EmployerNameIndex employerNameIndex,
+                              EmployerExportService employerExportService) {
         this.employerRepository = employerRepository;
+        this.documentTransferService = documentTransferService;
+        this.documentProcessingRepository = documentProcessingRepository;
+        this.employerSearchService = employerSearchService;
+        this.employerNameIndex = employerNameIndex;
+        this.employerExportService = employerExportService;
     }
     
+    /**
+     * Liste des employeurs par pages, parcourue par curseur : chaque page est lue à partir du dernier
+     * identifiant de la précédente (paramètre after), sans décalage
+     */
     @GetMapping
-    public ResponseEntity<List<Employer>> getAllEmployers() {
-        List<Employer> employers = employerRepository.findAll();
-        return ResponseEntity.ok(employers);
-    }   
+    public ResponseEntity<CursorPage<EmployerSummaryDto>> getAllEmployers(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        // Un élément de plus que la taille demandée indique l'existence d'une page suivante
+        List<EmployerSummaryDto> rows = employerRepository.findSummariesAfter(after, PageRequest.of(0, size + 1));
+        if (rows.size() <= size) {
+            return ResponseEntity.ok(new CursorPage<>(rows, null, null, null));
+        }
+        List<EmployerSummaryDto> items = rows.subList(0, size);
+        Long nextCursor = items.get(size - 1).getId();
+        String next = nextLink(nextCursor, size);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(new CursorPage<>(items, nextCursor, next, null));
+    }
     
+    /**
+     * Recherche multicritère (secteur, département, taille, statut), paginée par curseur comme la liste.
+     * Le total n'est calculé que si count=true ; il peut provenir d'un cache de courte durée.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<CursorPage<EmployerSummaryDto>> filterEmployers(
+            EmployerFilter filter,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean count) {
+        int size = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        List<EmployerSummaryDto> rows = employerSearchService.search(filter, after, size + 1);
+        Long total = count ? employerSearchService.count(filter) : null;
+        if (rows.size() <= size) {
+            return ResponseEntity.ok(new CursorPage<>(rows, null, null, total));
+        }
+        List<EmployerSummaryDto> items = rows.subList(0, size);
+        Long nextCursor = items.get(size - 1).getId();
+        String next = nextLink(nextCursor, size);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(new CursorPage<>(items, nextCursor, next, total));
+    }
+
+    /**
+     * Recherche approchée par nom d'entreprise (tolérante aux fautes de frappe) ou par préfixe de NINEA,
+     * servie par l'index en mémoire
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchEmployers(@RequestParam String q,
+                                             @RequestParam(required = false) Integer limit) {
+        if (q.isBlank()) {
+            return new ResponseEntity<>(Map.of("message", "Le texte recherché est obligatoire"), HttpStatus.BAD_REQUEST);
+        }
+        if (!employerNameIndex.isLoaded()) {
+            return new ResponseEntity<>(Map.of("message", "Index de recherche en cours de chargement, veuillez réessayer"),
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        int size = limit == null ? defaultSearchSize : Math.max(1, Math.min(limit, maxPageSize));
+        List<EmployerSearchHitDto> hits = employerNameIndex.search(q, size);
+        return ResponseEntity.ok(hits);
+    }
+
+    /**
+     * Export de tous les employeurs (format : ndjson ou csv), écrit au fil de la lecture de la base.
+     * La réponse est compressée en gzip si le client l'accepte.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportEmployers(
+            @RequestParam(defaultValue = EmployerExportService.NDJSON) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (!EmployerExportService.NDJSON.equals(format) && !EmployerExportService.CSV.equals(format)) {
+            return new ResponseEntity<>(Map.of("message", "Format d'export inconnu: " + format), HttpStatus.BAD_REQUEST);
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                employerExportService.export(format, compressed);
+                compressed.finish();
+            } else {
+                employerExportService.export(format, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(EmployerExportService.CSV.equals(format)
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("employers." + format).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Employer> getEmployerById(Long id) {
         Employer employer = employerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Employer non trouvé"));
         return ResponseEntity.ok(employer);
     }
+
+    /**
+     * État du traitement des documents d'un employeur (type détecté, miniature, version optimisée)
+     */
+    @GetMapping("/{id}/documents")
+    public ResponseEntity<List<DocumentProcessing>> getDocumentProcessing(@PathVariable Long id) {
+        return ResponseEntity.ok(documentProcessingRepository.findByEmployerId(id));
+    }
+
+    /**
+     * Télécharge un document d'un employeur (type : ninea ou rccm).
+     * La version PDF optimisée est envoyée si elle existe, sauf si l'original est demandé.
+     * Seul un document validé par le traitement (PDF ou image reconnus) est affiché dans le navigateur ;
+     * un document en attente, rejeté ou en échec est envoyé en pièce jointe.
+     * Le fichier est envoyé sans passer par le tas, avec prise en charge de Range et de If-None-Match.
+     */
+    @GetMapping("/{id}/documents/{type}")
+    public void downloadDocument(@PathVariable Long id, @PathVariable String type,
+                                 @RequestParam(defaultValue = "false") boolean original,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<DocumentProcessing> processing = documentProcessingRepository.findByEmployerIdAndCategory(id, type);
+        if (!original && processing.isPresent() && processing.get().getOptimizedPath() != null) {
+            documentTransferService.send(processing.get().getOptimizedPath(), DocumentProcessor.PDF, request, response);
+            return;
+        }
+        Optional<String> relativePath;
+        switch (type) {
+            case "ninea":
+                relativePath = employerRepository.findNineaDocumentPathById(id);
+                break;
+            case "rccm":
+                relativePath = employerRepository.findRccmDocumentPathById(id);
+                break;
+            default:
+                throw new ResourceNotFoundException("Type de document inconnu: " + type);
+        }
+        String path = relativePath
+                .orElseThrow(() -> new ResourceNotFoundException("Document introuvable pour l'employeur " + id));
+        String mediaType = processing
+                .filter(p -> p.getStatus() == DocumentProcessing.Status.VALID)
+                .map(DocumentProcessing::getMediaType)
+                .orElse(null);
+        documentTransferService.send(path, mediaType, request, response);
+    }
+
+    /**
+     * Miniature JPEG de la première page d'un document (écrans de validation), disponible une fois le document traité
+     */
+    @GetMapping("/{id}/documents/{type}/thumbnail")
+    public void downloadThumbnail(@PathVariable Long id, @PathVariable String type,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = documentProcessingRepository.findByEmployerIdAndCategory(id, type)
+                .map(DocumentProcessing::getThumbnailPath)
+                .orElseThrow(() -> new ResourceNotFoundException("Miniature non disponible pour l'employeur " + id));
+        documentTransferService.send(path, DocumentProcessor.JPEG, request, response);
+    }
+
+    // Lien vers la page suivante : requête courante (critères compris) avec le nouveau curseur
+    private String nextLink(Long nextCursor, int size) {
+        return ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", nextCursor)
+                .replaceQueryParam("limit", size)
+                .toUriString();
+    }
 }
@@ -0,0 +1,85 @@
+package com.solutionrh.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.solutionrh.exception.ResourceNotFoundException;
+import com.solutionrh.exception.ServiceOverloadedException;
+import com.solutionrh.service.EmployerImportService;
+import com.solutionrh.service.EmployerImportService.ImportJob;
+
+/**
+ * Import en masse d'employeurs depuis un fichier CSV : envoi du fichier (POST), puis suivi de la progression
+ * et des erreurs par ligne (GET /{id})
+ */
+@RestController
+@RequestMapping("/api/admin/imports")
+public class EmployerImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployerImportController.class);
+
+    private final EmployerImportService employerImportService;
+
+    public EmployerImportController(EmployerImportService employerImportService) {
+        this.employerImportService = employerImportService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createImport(@RequestParam("file") MultipartFile file) {
+        try {
+            ImportJob job = employerImportService.submit(file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/admin/imports/" + job.getId())
+                    .body(toResponse(job));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (ServiceOverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Erreur lors de la création de l'import: {}", e.getMessage(), e);
+            return new ResponseEntity<>(Map.of("message", "Erreur lors de la création de l'import"),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getImport(@PathVariable String id) {
+        try {
+            return new ResponseEntity<>(toResponse(employerImportService.get(id)), HttpStatus.OK);
+        } catch (ResourceNotFoundException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    private Map<String, Object> toResponse(ImportJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("importId", job.getId());
+        response.put("filename", job.getFilename());
+        response.put("state", job.getState());
+        response.put("progress", job.getProgress());
+        response.put("processedRows", job.getProcessedRows());
+        response.put("importedRows", job.getImportedRows());
+        response.put("rejectedRows", job.getRejectedRows());
+        response.put("createdAt", job.getCreatedAt());
+        response.put("startedAt", job.getStartedAt());
+        response.put("finishedAt", job.getFinishedAt());
+        response.put("message", job.getMessage());
+        response.put("errors", job.getErrors());
+        return response;
+    }
+}
@@ -0,0 +1,54 @@
+package com.solutionrh.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.solutionrh.dto.AccountStatusTransitionDto;
+import com.solutionrh.service.EmployerStatusService;
+
+/**
+ * Changement de statut des comptes employeurs en masse (activation, désactivation)
+ */
+@RestController
+@RequestMapping("/api/admin/employers")
+public class EmployerStatusController {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployerStatusController.class);
+
+    private final EmployerStatusService employerStatusService;
+
+    public EmployerStatusController(EmployerStatusService employerStatusService) {
+        this.employerStatusService = employerStatusService;
+    }
+
+    @PostMapping("/status")
+    public ResponseEntity<?> changeStatus(@RequestBody AccountStatusTransitionDto request,
+                                          Authentication authentication) {
+        try {
+            EmployerStatusService.Result result = employerStatusService.apply(request,
+                    authentication != null ? authentication.getName() : null);
+            Map<String, Object> response = new HashMap<>();
+            response.put("operationId", result.getOperationId());
+            response.put("status", result.getStatus());
+            response.put("selected", result.getSelected());
+            response.put("updated", result.getUpdated());
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Erreur lors du changement de statut en masse: {}", e.getMessage(), e);
+            return new ResponseEntity<>(Map.of("message", "Erreur lors du changement de statut"),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.solutionrh.dao;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.solutionrh.model.AccountStatusChange;
+
+public interface AccountStatusChangeRepository extends JpaRepository<AccountStatusChange, Long> {
+
+    /**
+     * Écrit en une instruction l'historique d'un lot de changements de statut, à partir des statuts actuels :
+     * à exécuter avant la mise à jour des employeurs, dans la même transaction
+     *
+     * @param ids les employeurs du lot (déjà verrouillés)
+     * @return le nombre de lignes d'historique écrites
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_status_change "
+            + "(operation_id, employer_id, previous_status, new_status, reason, changed_by, changed_at) "
+            + "SELECT :operationId, id, account_status, :newStatus, :reason, :changedBy, :changedAt "
+            + "FROM employer WHERE id IN (:ids)", nativeQuery = true)
+    int insertForEmployers(@Param("operationId") String operationId, @Param("ids") Collection<Long> ids,
+                           @Param("newStatus") String newStatus, @Param("reason") String reason,
+                           @Param("changedBy") String changedBy, @Param("changedAt") LocalDateTime changedAt);
+}
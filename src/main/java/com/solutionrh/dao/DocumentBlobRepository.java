@@ -0,0 +1,36 @@
+package com.solutionrh.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.solutionrh.model.DocumentBlob;
+
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+
+    /**
+     * Ajoute une référence au blob, en le créant au besoin (une seule instruction, sans lecture préalable)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO document_blob (path, sha256, size, ref_count, created_at) "
+            + "VALUES (:path, :sha256, :size, 1, NOW()) "
+            + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1", nativeQuery = true)
+    int acquire(@Param("path") String path, @Param("sha256") String sha256, @Param("size") long size);
+
+    /**
+     * Retire une référence au blob ; le fichier d'un blob à zéro référence est récupéré par le nettoyage
+     */
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.refCount = b.refCount - 1 WHERE b.path = :path AND b.refCount > 0")
+    int release(@Param("path") String path);
+
+    /**
+     * Supprime l'enregistrement d'un blob sans référence, une fois son fichier supprimé
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DocumentBlob b WHERE b.path = :path AND b.refCount = 0")
+    int deleteUnreferenced(@Param("path") String path);
+}
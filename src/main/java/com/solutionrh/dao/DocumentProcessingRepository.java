@@ -0,0 +1,31 @@
+package com.solutionrh.dao;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.solutionrh.model.DocumentProcessing;
+
+public interface DocumentProcessingRepository extends JpaRepository<DocumentProcessing, Long> {
+
+    List<DocumentProcessing> findByEmployerId(Long employerId);
+
+    Optional<DocumentProcessing> findByEmployerIdAndCategory(Long employerId, String category);
+
+    /**
+     * Traitements restés en attente (file pleine au moment de l'inscription, redémarrage), les plus anciens d'abord
+     */
+    @Query("SELECT p.id FROM DocumentProcessing p WHERE p.status = :status AND p.createdAt < :before ORDER BY p.createdAt")
+    List<Long> findIdsByStatusCreatedBefore(@Param("status") DocumentProcessing.Status status,
+                                            @Param("before") LocalDateTime before, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM DocumentProcessing p WHERE p.employerId = :employerId")
+    int deleteByEmployerId(@Param("employerId") Long employerId);
+}
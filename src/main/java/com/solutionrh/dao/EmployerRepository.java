@@ -1,16 +1,139 @@
 package com.solutionrh.dao;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.solutionrh.dto.EmployerExportDto;
+import com.solutionrh.dto.EmployerSummaryDto;
 import com.solutionrh.model.Employer;
 
+import jakarta.persistence.QueryHint;
 
-public interface EmployerRepository extends JpaRepository<Employer, Long> {
+
+public interface EmployerRepository extends JpaRepository<Employer, Long>, EmployerSearchRepository {
     List<Employer> findAll();
     Optional<Employer> findById(Long id);
     Optional<Employer> findByProfessionalEmail(String email);
 Optional<Employer> findByNinea(String ninea);
+
+    /**
+     * Page d'employeurs après un identifiant (pagination par clé) : parcours borné de la clé primaire,
+     * sans comptage ni décalage
+     *
+     * @param after l'identifiant du dernier employeur de la page précédente (0 pour la première page)
+     * @param pageable la taille de la page (numéro de page toujours 0)
+     */
+    @Query("SELECT new com.solutionrh.dto.EmployerSummaryDto(e.id, e.companyName, e.ninea, e.activitySector, e.size, "
+            + "e.department, e.professionalEmail, e.accountStatus, e.statusChangeDate) "
+            + "FROM Employer e WHERE e.id > :after ORDER BY e.id")
+    List<EmployerSummaryDto> findSummariesAfter(@Param("after") long after, Pageable pageable);
+
+    /**
+     * Lignes (id, nom d'entreprise, NINEA) du chargement de l'index des noms, par pages de la clé primaire
+     */
+    @Query("SELECT e.id, e.companyName, e.ninea FROM Employer e WHERE e.id > :after ORDER BY e.id")
+    List<Object[]> findNameIndexRowsAfter(@Param("after") long after, Pageable pageable);
+
+    /**
+     * Tous les employeurs, lus en flux par un curseur côté serveur (MySQL : fetchSize = Integer.MIN_VALUE,
+     * une ligne à la fois). Le flux doit être consommé puis fermé dans une transaction en lecture seule.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.solutionrh.dto.EmployerExportDto(e.id, e.companyName, e.ninea, e.activitySector, e.size, "
+            + "e.address, e.addressComplement, e.department, e.country, e.website, e.firstName, e.lastName, "
+            + "e.professionalEmail, e.professionalPhone, e.professionalPhoneFixed, e.function, e.accountStatus, "
+            + "e.statusChangeReason, e.statusChangeDate) FROM Employer e ORDER BY e.id")
+    Stream<EmployerExportDto> streamExportRows();
+
+    @Query("SELECT e.NINEADocumentPath FROM Employer e WHERE e.id = :id")
+    Optional<String> findNineaDocumentPathById(@Param("id") Long id);
+
+    @Query("SELECT e.RCCMDocumentPath FROM Employer e WHERE e.id = :id")
+    Optional<String> findRccmDocumentPathById(@Param("id") Long id);
+
+    /**
+     * Parmi les chemins donnés, retourne ceux qui sont encore référencés : document NINEA ou RCCM d'un employeur,
+     * blob partagé ayant au moins une référence, ou fichier dérivé (miniature, PDF optimisé)
+     * 
+     * @param paths les chemins relatifs candidats (un lot du nettoyage des fichiers orphelins)
+     * @return les chemins référencés
+     */
+    @Query(value = "SELECT ninea_document_path FROM employer WHERE ninea_document_path IN (:paths) "
+            + "UNION SELECT rccm_document_path FROM employer WHERE rccm_document_path IN (:paths) "
+            + "UNION SELECT path FROM document_blob WHERE path IN (:paths) AND ref_count > 0 "
+            + "UNION SELECT thumbnail_path FROM document_processing WHERE thumbnail_path IN (:paths) "
+            + "UNION SELECT optimized_path FROM document_processing WHERE optimized_path IN (:paths)", nativeQuery = true)
+    List<String> findReferencedDocumentPaths(@Param("paths") Collection<String> paths);
+
+    /**
+     * Parmi les emails donnés, retourne ceux déjà utilisés (email professionnel d'un employeur ou nom d'utilisateur)
+     *
+     * @param emails un lot d'emails (import en masse)
+     */
+    @Query(value = "SELECT professional_email FROM employer WHERE professional_email IN (:emails) "
+            + "UNION SELECT username FROM users WHERE username IN (:emails)", nativeQuery = true)
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Parmi les NINEA donnés, retourne ceux déjà enregistrés
+     *
+     * @param nineas un lot de NINEA (import en masse)
+     */
+    @Query("SELECT e.ninea FROM Employer e WHERE e.ninea IN :nineas")
+    List<String> findExistingNineas(@Param("nineas") Collection<String> nineas);
+
+    /**
+     * Verrouille les employeurs d'un lot dont le statut fait partie des statuts de départ d'un changement en masse
+     *
+     * @param ids les identifiants du lot
+     * @param statuses les statuts de départ acceptés (noms des valeurs de {@link Employer.AccountStatus})
+     * @return les lignes (id, email professionnel) verrouillées jusqu'à la fin de la transaction
+     */
+    @Query(value = "SELECT id, professional_email FROM employer WHERE id IN (:ids) AND account_status IN (:statuses) "
+            + "FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockForStatusChange(@Param("ids") Collection<Long> ids, @Param("statuses") Collection<String> statuses);
+
+    /**
+     * Change le statut d'un lot d'employeurs en une instruction. Les listeners de l'entité ne sont pas appelés :
+     * les caches d'authentification sont à vider par l'appelant.
+     */
+    @Modifying
+    @Query("UPDATE Employer e SET e.accountStatus = :status, e.statusChangeReason = :reason, "
+            + "e.statusChangeDate = :date WHERE e.id IN :ids")
+    int updateAccountStatus(@Param("ids") Collection<Long> ids, @Param("status") Employer.AccountStatus status,
+                            @Param("reason") String reason, @Param("date") LocalDateTime date);
+
+    String DUPLICATE_USERNAME = "USERNAME";
+    String DUPLICATE_EMAIL = "EMAIL";
+    String DUPLICATE_NINEA = "NINEA";
+
+    /**
+     * Vérifie en une seule requête (sondes d'index uniquement, aucune entité chargée) si l'email est déjà
+     * utilisé dans users ou employer, ou si le NINEA est déjà enregistré.
+     * 
+     * @param email l'email professionnel (nom d'utilisateur)
+     * @param ninea le numéro NINEA
+     * @return la clé en conflit (DUPLICATE_USERNAME, DUPLICATE_EMAIL ou DUPLICATE_NINEA), vide si aucune
+     */
+    @Query(value = "SELECT CASE "
+            + "WHEN EXISTS (SELECT 1 FROM users WHERE username = :email) THEN 'USERNAME' "
+            + "WHEN EXISTS (SELECT 1 FROM employer WHERE professional_email = :email) THEN 'EMAIL' "
+            + "WHEN EXISTS (SELECT 1 FROM employer WHERE ninea = :ninea) THEN 'NINEA' "
+            + "END", nativeQuery = true)
+    Optional<String> findRegistrationConflict(@Param("email") String email, @Param("ninea") String ninea);
 }
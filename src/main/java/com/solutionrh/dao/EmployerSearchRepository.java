@@ -0,0 +1,26 @@
+package com.solutionrh.dao;
+
+import java.util.List;
+
+import com.solutionrh.dto.EmployerFilter;
+import com.solutionrh.dto.EmployerSummaryDto;
+
+/**
+ * Recherche multicritère d'employeurs (requêtes Criteria construites selon les critères renseignés)
+ */
+public interface EmployerSearchRepository {
+
+    /**
+     * Page d'employeurs correspondant aux critères, après un identifiant (pagination par curseur)
+     *
+     * @param filter les critères
+     * @param after l'identifiant du dernier employeur de la page précédente (0 pour la première page)
+     * @param limit le nombre maximal de lignes
+     */
+    List<EmployerSummaryDto> search(EmployerFilter filter, long after, int limit);
+
+    /**
+     * Nombre d'employeurs correspondant aux critères
+     */
+    long count(EmployerFilter filter);
+}
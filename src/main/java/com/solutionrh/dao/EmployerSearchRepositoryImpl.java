@@ -0,0 +1,72 @@
+package com.solutionrh.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.solutionrh.dto.EmployerFilter;
+import com.solutionrh.dto.EmployerSummaryDto;
+import com.solutionrh.model.Employer;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Implémentation de {@link EmployerSearchRepository}. Seuls les critères renseignés entrent dans la clause
+ * WHERE : chaque combinaison courante est servie par un index composite déclaré sur {@link Employer}.
+ */
+public class EmployerSearchRepositoryImpl implements EmployerSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EmployerSummaryDto> search(EmployerFilter filter, long after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EmployerSummaryDto> query = cb.createQuery(EmployerSummaryDto.class);
+        Root<Employer> employer = query.from(Employer.class);
+        query.select(cb.construct(EmployerSummaryDto.class,
+                employer.get("id"), employer.get("companyName"), employer.get("ninea"),
+                employer.get("activitySector"), employer.get("size"), employer.get("department"),
+                employer.get("professionalEmail"), employer.get("accountStatus"), employer.get("statusChangeDate")));
+
+        List<Predicate> predicates = predicatesOf(filter, cb, employer);
+        predicates.add(cb.greaterThan(employer.get("id"), after));
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.asc(employer.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long count(EmployerFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Employer> employer = query.from(Employer.class);
+        query.select(cb.count(employer));
+        query.where(predicatesOf(filter, cb, employer).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<Predicate> predicatesOf(EmployerFilter filter, CriteriaBuilder cb, Root<Employer> employer) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getAccountStatus() != null) {
+            predicates.add(cb.equal(employer.get("accountStatus"), filter.getAccountStatus()));
+        }
+        if (filter.getDepartment() != null) {
+            predicates.add(cb.equal(employer.get("department"), filter.getDepartment()));
+        }
+        if (filter.getActivitySector() != null) {
+            predicates.add(cb.equal(employer.get("activitySector"), filter.getActivitySector()));
+        }
+        if (filter.getSize() != null) {
+            predicates.add(cb.equal(employer.get("size"), filter.getSize()));
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,47 @@
+package com.solutionrh.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.solutionrh.model.IdAllocation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Aligne la table d'allocation des identifiants sur les données existantes au démarrage.
+ * Les tables remplies auparavant en AUTO_INCREMENT contiennent déjà des identifiants : chaque segment
+ * est positionné au-delà de MAX(id) d'au moins un bloc, pour qu'aucun identifiant alloué n'entre en collision.
+ */
+@Component
+public class IdAllocationInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdAllocationInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // L'EntityManagerFactory est injectée pour que le schéma (dont la table d'allocation) soit à jour avant l'alignement
+    public IdAllocationInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        align(IdAllocation.EMPLOYER, "employer");
+        align(IdAllocation.USERS, "users");
+        align(IdAllocation.ROLES, "roles");
+        align(IdAllocation.DOCUMENT_PROCESSING, "document_processing");
+    }
+
+    private void align(String segment, String table) {
+        int updated = jdbcTemplate.update("INSERT INTO " + IdAllocation.TABLE
+                + " (" + IdAllocation.SEGMENT_COLUMN + ", " + IdAllocation.VALUE_COLUMN + ")"
+                + " SELECT ?, COALESCE(MAX(id), 0) + ? FROM " + table
+                + " ON DUPLICATE KEY UPDATE " + IdAllocation.VALUE_COLUMN
+                + " = GREATEST(" + IdAllocation.VALUE_COLUMN + ", VALUES(" + IdAllocation.VALUE_COLUMN + "))",
+                segment, IdAllocation.ALLOCATION_SIZE + 1);
+        logger.debug("Segment d'allocation {} aligné sur la table {} ({} ligne(s) modifiée(s))", segment, table, updated);
+    }
+}
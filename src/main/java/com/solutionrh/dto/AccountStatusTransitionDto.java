@@ -0,0 +1,21 @@
+package com.solutionrh.dto;
+
+import java.util.List;
+
+import com.solutionrh.model.Employer;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Changement de statut en masse : les employeurs sont désignés par leurs identifiants ou par des critères
+ */
+@Data
+@NoArgsConstructor
+public class AccountStatusTransitionDto {
+    private List<Long> ids; // Prioritaire sur les critères
+    private EmployerFilter filter;
+    private Employer.AccountStatus status; // ACTIVE ou INACTIVE
+    private List<Employer.AccountStatus> fromStatuses; // Statuts de départ acceptés (par défaut : tous les autres)
+    private String reason;
+}
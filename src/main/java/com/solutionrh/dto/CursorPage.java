@@ -0,0 +1,19 @@
+package com.solutionrh.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Page d'une liste parcourue par curseur : le curseur suivant est la clé du dernier élément,
+ * null s'il n'y a plus de page
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private Long nextCursor;
+    private String next; // Lien vers la page suivante
+    private Long total; // Nombre total d'éléments (éventuellement mis en cache), null s'il n'est pas demandé
+}
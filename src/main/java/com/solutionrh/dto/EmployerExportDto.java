@@ -0,0 +1,39 @@
+package com.solutionrh.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.solutionrh.model.Employer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Ligne de l'export des employeurs, lue directement par la requête (ni mot de passe ni chemins de documents)
+ */
+@Getter
+@AllArgsConstructor
+@JsonPropertyOrder({ "id", "companyName", "ninea", "activitySector", "size", "address", "addressComplement",
+        "department", "country", "website", "firstName", "lastName", "professionalEmail", "professionalPhone",
+        "professionalPhoneFixed", "function", "accountStatus", "statusChangeReason", "statusChangeDate" })
+public class EmployerExportDto {
+    private Long id;
+    private String companyName;
+    private String ninea;
+    private Employer.ActivitySector activitySector;
+    private Employer.Size size;
+    private String address;
+    private String addressComplement;
+    private Employer.department department;
+    private String country;
+    private String website;
+    private String firstName;
+    private String lastName;
+    private String professionalEmail;
+    private String professionalPhone;
+    private String professionalPhoneFixed;
+    private String function;
+    private Employer.AccountStatus accountStatus;
+    private String statusChangeReason;
+    private LocalDateTime statusChangeDate;
+}
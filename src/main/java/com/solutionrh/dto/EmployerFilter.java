@@ -0,0 +1,18 @@
+package com.solutionrh.dto;
+
+import com.solutionrh.model.Employer;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Critères de la recherche d'employeurs ; un critère null n'est pas appliqué
+ */
+@Data
+@NoArgsConstructor
+public class EmployerFilter {
+    private Employer.ActivitySector activitySector;
+    private Employer.department department;
+    private Employer.Size size;
+    private Employer.AccountStatus accountStatus;
+}
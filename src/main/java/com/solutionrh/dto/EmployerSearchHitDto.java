@@ -0,0 +1,16 @@
+package com.solutionrh.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Résultat de la recherche approchée par nom d'entreprise ou préfixe de NINEA
+ */
+@Getter
+@AllArgsConstructor
+public class EmployerSearchHitDto {
+    private Long id;
+    private String companyName;
+    private String ninea;
+    private double score; // Similarité des trigrammes entre 0 et 1 (1 pour un NINEA correspondant)
+}
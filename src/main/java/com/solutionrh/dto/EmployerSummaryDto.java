@@ -0,0 +1,26 @@
+package com.solutionrh.dto;
+
+import java.time.LocalDateTime;
+
+import com.solutionrh.model.Employer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Vue résumée d'un employeur pour les listes, lue directement par la requête (aucune entité chargée,
+ * ni mot de passe ni rôles)
+ */
+@Getter
+@AllArgsConstructor
+public class EmployerSummaryDto {
+    private Long id;
+    private String companyName;
+    private String ninea;
+    private Employer.ActivitySector activitySector;
+    private Employer.Size size;
+    private Employer.department department;
+    private String professionalEmail;
+    private Employer.AccountStatus accountStatus;
+    private LocalDateTime statusChangeDate;
+}
@@ -0,0 +1,20 @@
+package com.solutionrh.exception;
+
+/**
+ * Envoi fractionné détenu par un autre nœud : les morceaux sont écrits dans la zone de dépôt locale
+ * de ce nœud, la requête doit y être routée (affinité de session du répartiteur de charge).
+ * Traité comme un envoi introuvable par les appelants qui ne distinguent pas ce cas.
+ */
+public class UploadMisdirectedException extends ResourceNotFoundException {
+
+    private final String ownerNode;
+
+    public UploadMisdirectedException(String message, String ownerNode) {
+        super(message);
+        this.ownerNode = ownerNode;
+    }
+
+    public String getOwnerNode() {
+        return ownerNode;
+    }
+}
@@ -0,0 +1,23 @@
+package com.solutionrh.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Morceau envoyé à une position différente de celle attendue par l'envoi fractionné.
+ * Le client reprend à partir de {@link #getCurrentOffset()}.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class UploadOffsetMismatchException extends RuntimeException {
+
+    private final long currentOffset;
+
+    public UploadOffsetMismatchException(String message, long currentOffset) {
+        super(message);
+        this.currentOffset = currentOffset;
+    }
+
+    public long getCurrentOffset() {
+        return currentOffset;
+    }
+}
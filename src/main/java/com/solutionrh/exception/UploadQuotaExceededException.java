@@ -0,0 +1,23 @@
+package com.solutionrh.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Trop d'envois fractionnés en cours pour un même client.
+ * Le client peut réessayer après {@link #getRetryAfterSeconds()} secondes.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class UploadQuotaExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public UploadQuotaExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,57 @@
+package com.solutionrh.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Historique des changements de statut des comptes employeurs.
+ * Les lignes sont écrites par INSERT ... SELECT dans la transaction du changement (voir
+ * {@link com.solutionrh.service.EmployerStatusService}) : l'identifiant est donc attribué par la base
+ * et non par l'allocation par blocs des autres tables.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "account_status_change", indexes = {
+        @Index(name = "idx_account_status_change_employer", columnList = "employer_id, changed_at"),
+        @Index(name = "idx_account_status_change_operation", columnList = "operation_id")
+})
+public class AccountStatusChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "operation_id", nullable = false, length = 36)
+    private String operationId; // Regroupe les lignes d'un même changement en masse
+
+    @Column(name = "employer_id", nullable = false)
+    private Long employerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status", length = 32)
+    private Employer.AccountStatus previousStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "new_status", nullable = false, length = 32)
+    private Employer.AccountStatus newStatus;
+
+    private String reason;
+
+    @Column(name = "changed_by")
+    private String changedBy; // Administrateur à l'origine du changement
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,39 @@
+package com.solutionrh.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Blob de document adressé par contenu, partagé entre employeurs.
+ * Le compteur de références suit le nombre de chemins de documents d'employeurs qui le désignent ;
+ * un blob à zéro référence peut être supprimé du disque.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "document_blob")
+public class DocumentBlob {
+
+    // Chemin relatif du blob (blobs/ab/cd/<sha256><extension>)
+    @Id
+    @Column(length = 191)
+    private String path;
+
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "size", nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,85 @@
+package com.solutionrh.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat du traitement en arrière-plan d'un document d'inscription d'un employeur :
+ * type réel (octets de signature), version PDF optimisée et miniature de la première page.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "document_processing",
+        uniqueConstraints = @UniqueConstraint(columnNames = { "employer_id", "category" }),
+        indexes = @Index(name = "idx_document_processing_status", columnList = "status, created_at"))
+public class DocumentProcessing {
+
+    public enum Status {
+        PENDING, // En attente de traitement
+        VALID, // Document valide, miniature disponible
+        REJECTED, // Type de fichier non accepté
+        FAILED // Erreur de traitement (fichier illisible ou corrompu)
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "document_processing_id")
+    @TableGenerator(name = "document_processing_id", table = IdAllocation.TABLE,
+            pkColumnName = IdAllocation.SEGMENT_COLUMN, valueColumnName = IdAllocation.VALUE_COLUMN,
+            pkColumnValue = IdAllocation.DOCUMENT_PROCESSING, allocationSize = IdAllocation.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "employer_id", nullable = false)
+    private Long employerId;
+
+    @Column(nullable = false, length = 16)
+    private String category; // ninea, rccm
+
+    @Column(name = "document_path", nullable = false)
+    private String documentPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "media_type", length = 64)
+    private String mediaType; // Type détecté d'après le contenu
+
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Column(name = "original_size")
+    private Long originalSize;
+
+    @Column(name = "optimized_path")
+    private String optimizedPath; // PDF recompressé, si plus léger que l'original
+
+    @Column(name = "optimized_size")
+    private Long optimizedSize;
+
+    @Column(name = "thumbnail_path")
+    private String thumbnailPath; // Miniature JPEG de la première page
+
+    private int attempts;
+
+    private String message; // Motif du rejet ou de l'échec
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
@@ -11,19 +11,25 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.solutionrh.security.model.Role;
+import com.solutionrh.security.service.EmployerPrincipalListener;
+import com.solutionrh.service.EmployerNameIndexListener;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -35,10 +41,27 @@ import lombok.NoArgsConstructor;
 @Entity
 @Data
 @NoArgsConstructor
-@Table(name = "employer")
+@Table(name = "employer", indexes = {
+        // Filtres de la recherche multicritère ; l'id en dernière colonne sert la pagination par curseur
+        @Index(name = "idx_employer_status_department", columnList = "account_status, department, id"),
+        @Index(name = "idx_employer_status_sector", columnList = "account_status, activity_sector, id"),
+        @Index(name = "idx_employer_department_sector", columnList = "department, activity_sector, id"),
+        @Index(name = "idx_employer_sector_size", columnList = "activity_sector, size, id")
+}, uniqueConstraints = {
+        // Noms reconnus lors d'une inscription concurrente en doublon
+        @UniqueConstraint(name = Employer.UK_NINEA, columnNames = "ninea"),
+        @UniqueConstraint(name = Employer.UK_PROFESSIONAL_EMAIL, columnNames = "professional_email")
+})
+@EntityListeners({ EmployerPrincipalListener.class, EmployerNameIndexListener.class })
 public class Employer implements UserDetails {
+    public static final String UK_NINEA = "uk_employer_ninea";
+    public static final String UK_PROFESSIONAL_EMAIL = "uk_employer_professional_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "employer_id")
+    @TableGenerator(name = "employer_id", table = IdAllocation.TABLE, pkColumnName = IdAllocation.SEGMENT_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN, pkColumnValue = IdAllocation.EMPLOYER,
+            allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
     // Information sur l'entreprise
@@ -46,7 +69,6 @@ public class Employer implements UserDetails {
     private String companyName;
 
     @NotBlank(message = "Le NINEA est obligatoire")
-    @Column(unique = true)
     private String ninea; // Numéro de NINEA unique
 
     // Enums synchronisés avec EmployerDto
@@ -167,7 +189,6 @@ public class Employer implements UserDetails {
 
     @NotBlank(message = "L'email est obligatoire")
     @Email(message = "Format d'email invalide")
-    @Column(unique = true)
     private String professionalEmail; // Utilisé comme username pour l'authentification
 
     private String function;
@@ -0,0 +1,22 @@
+package com.solutionrh.model;
+
+/**
+ * Paramètres de l'allocation des identifiants par table (hi/lo "pooled").
+ * Les identifiants sont réservés par blocs de {@link #ALLOCATION_SIZE} : ils sont connus avant l'insertion,
+ * ce qui permet de calculer les chemins de stockage à l'avance et d'envoyer les insertions par lots JDBC.
+ */
+public final class IdAllocation {
+
+    public static final String TABLE = "id_allocation";
+    public static final String SEGMENT_COLUMN = "entity_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String EMPLOYER = "employer";
+    public static final String USERS = "users";
+    public static final String ROLES = "roles";
+    public static final String DOCUMENT_PROCESSING = "document_processing";
+
+    private IdAllocation() {
+    }
+}
@@ -1,5 +1,6 @@
 package com.solutionrh.security;
 
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,8 +13,8 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.solutionrh.security.jwt.JwtAuthenticationFilter;
-import com.solutionrh.security.service.CustomUserDetailsService;
-import com.solutionrh.security.jwt.JwtGenerator;
+import com.solutionrh.security.service.OffloadingPasswordEncoder;
+import com.solutionrh.security.service.PasswordHashingExecutor;
 
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.http.HttpMethod;
@@ -24,8 +25,8 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
-    public SecurityConfig(JwtGenerator jwtGenerator, CustomUserDetailsService userDetailsService) {
-        this.jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtGenerator, userDetailsService);
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
     }
 
     @Bean
@@ -38,13 +39,8 @@ public class SecurityConfig {
                                 // Autoriser toutes les requêtes OPTIONS sans authentification (crucial pour CORS)
                                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                                 
-                                // Routes d'authentification publiques
-                                .requestMatchers("/api/auth/login").permitAll()
-                                .requestMatchers("/api/auth/register").permitAll()
-                                .requestMatchers("/api/auth/refresh").permitAll()
-                                .requestMatchers("/api/auth/forgot-password").permitAll()
-                                .requestMatchers("/api/auth/reset-password").permitAll()
-                                .requestMatchers("/api/auth/register-with-files").permitAll()
+                                // Routes d'authentification publiques (matcher partagé avec le filtre JWT)
+                                .requestMatchers(SecurityPaths.PUBLIC_AUTH_MATCHER).permitAll()
                                 
                                 // Routes protégées
                                 .requestMatchers("/api/employers/**").hasAnyAuthority("ADMIN")
@@ -61,9 +57,24 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Le filtre JWT est déjà inséré dans la chaîne Spring Security :
+     * on désactive son enregistrement automatique comme filtre servlet.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration =
+                new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Encodeur BCrypt exécuté sur le pool dédié au hachage des mots de passe
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor) {
+        return new OffloadingPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingExecutor);
     }
 
     @Bean
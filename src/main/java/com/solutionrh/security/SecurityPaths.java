@@ -0,0 +1,45 @@
+package com.solutionrh.security;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * Chemins d'accès partagés entre la configuration de sécurité et le filtre JWT.
+ * Les matchers sont construits une seule fois au chargement de la classe.
+ */
+public final class SecurityPaths {
+
+    // Routes d'authentification publiques (permitAll) : le filtre JWT n'y est pas exécuté
+    public static final String[] PUBLIC_AUTH_PATHS = {
+            "/api/auth/login",
+            "/api/auth/register",
+            "/api/auth/refresh",
+            "/api/auth/forgot-password",
+            "/api/auth/reset-password",
+            "/api/auth/register-with-files",
+            "/api/auth/uploads",
+            "/api/auth/uploads/**"
+    };
+
+    // Routes pour lesquelles le token peut être transmis en paramètre de requête (ex: handshake WebSocket)
+    public static final String[] QUERY_TOKEN_PATHS = {
+            "/ws/**"
+    };
+
+    public static final RequestMatcher PUBLIC_AUTH_MATCHER = matcherOf(PUBLIC_AUTH_PATHS);
+
+    public static final RequestMatcher QUERY_TOKEN_MATCHER = matcherOf(QUERY_TOKEN_PATHS);
+
+    private SecurityPaths() {
+    }
+
+    private static RequestMatcher matcherOf(String... patterns) {
+        return new OrRequestMatcher(Arrays.stream(patterns)
+                .map(AntPathRequestMatcher::new)
+                .collect(Collectors.toList()));
+    }
+}
@@ -1,11 +1,11 @@
 package com.solutionrh.security.controller;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -14,14 +14,16 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.exception.DuplicateResourceException;
+import com.solutionrh.exception.ResourceNotFoundException;
+import com.solutionrh.exception.ServiceOverloadedException;
+import com.solutionrh.exception.UploadOffsetMismatchException;
 import com.solutionrh.model.Employer;
 import com.solutionrh.security.dto.LoginRequestDTO;
 import com.solutionrh.security.dto.MultipartRegisterRequestDTO;
@@ -30,14 +32,20 @@ import com.solutionrh.security.dto.PasswordResetDto;
 import com.solutionrh.security.dto.PasswordResetRequestDto;
 import com.solutionrh.security.dto.RefreshTokenDto;
 import com.solutionrh.security.jwt.JwtGenerator;
+import com.solutionrh.security.jwt.TokenValidationResult;
+import com.solutionrh.security.jwt.VerifiedToken;
 import com.solutionrh.security.model.Role;
 import com.solutionrh.security.model.UserEntity;
-import com.solutionrh.security.repository.RoleRepository;
 import com.solutionrh.security.repository.UserRepository;
 import com.solutionrh.security.service.CustomUserDetailsService;
+import com.solutionrh.security.service.EmployerRegistrationService;
+import com.solutionrh.security.service.EmployerRegistrationService.RegistrationResult;
+import com.solutionrh.security.service.LoginService;
+import com.solutionrh.security.service.LoginThrottle;
 import com.solutionrh.security.service.PasswordService;
-import com.solutionrh.service.FileStorageService;
+import com.solutionrh.security.service.SecurityVersionService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -50,14 +58,13 @@ public class AuthController {
 
     private final JwtGenerator jwtGenerator;
     private final UserRepository userRepository;
-    private final EmployerRepository employerRepository;
-    private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailsService customUserDetailsService;
     private final PasswordService passwordService;
-    private final FileStorageService fileStorageService;
-    private final org.springframework.transaction.PlatformTransactionManager transactionManager;
+    private final SecurityVersionService securityVersionService;
+    private final LoginThrottle loginThrottle;
+    private final LoginService loginService;
+    private final EmployerRegistrationService employerRegistrationService;
 
     /**
      * Endpoint pour modifier le mot de passe d'un utilisateur connecté
@@ -99,6 +106,8 @@ public class AuthController {
             
             return new ResponseEntity<>(Map.of("message", "Mot de passe modifié avec succès"), HttpStatus.OK);
             
+        } catch (ServiceOverloadedException e) {
+            return serviceOverloaded(e);
         } catch (Exception e) {
             logger.error("Erreur lors de la modification du mot de passe: {}", e.getMessage());
             return new ResponseEntity<>(Map.of("message", "Erreur lors de la modification du mot de passe: " + e.getMessage()),
@@ -164,6 +173,8 @@ public class AuthController {
             
             return new ResponseEntity<>(Map.of("message", "Mot de passe réinitialisé avec succès"), HttpStatus.OK);
             
+        } catch (ServiceOverloadedException e) {
+            return serviceOverloaded(e);
         } catch (Exception e) {
             logger.error("Erreur lors de la réinitialisation du mot de passe: {}", e.getMessage());
             return new ResponseEntity<>(Map.of("message", "Erreur lors de la réinitialisation du mot de passe: " + e.getMessage()),
@@ -172,7 +183,7 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequestDTO loginDto) {
+    public ResponseEntity<?> login(@RequestBody LoginRequestDTO loginDto, HttpServletRequest request) {
         try {
             // Validation explicite des champs
             if (loginDto.getUsername() == null || loginDto.getUsername().trim().isEmpty()) {
@@ -187,10 +198,21 @@ public class AuthController {
                         HttpStatus.BAD_REQUEST);
             }
             
+            // Limitation des tentatives (par utilisateur et par IP), avant tout calcul BCrypt
+            long retryAfter = loginThrottle.tryAcquire(loginDto.getUsername(), request.getRemoteAddr());
+            if (retryAfter > 0) {
+                logger.warn("Trop de tentatives de connexion pour l'utilisateur: {} depuis {}", 
+                        loginDto.getUsername(), request.getRemoteAddr());
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                        .body(Map.of("message", "Trop de tentatives de connexion. Veuillez réessayer plus tard."));
+            }
+            
             logger.info("Tentative de connexion pour l'utilisateur: {}", loginDto.getUsername());
             
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginDto.getUsername(), loginDto.getPassword()));
+            // Identifiants, rôles et profil employeur lus en une seule requête
+            LoginService.LoginResult loginResult = loginService.login(loginDto.getUsername(), loginDto.getPassword());
+            Authentication authentication = loginResult.getAuthentication();
 
             String token = jwtGenerator.generateToken(authentication);
             String refreshToken = jwtGenerator.generateRefreshToken(authentication);
@@ -210,28 +232,8 @@ public class AuthController {
             response.put("username", loginDto.getUsername());
             response.put("roles", roles);
             
-            // Récupérer toutes les informations de lemployeur à partir de l'email
-            userRepository.findByUsername(loginDto.getUsername()).ifPresent(user -> {
-             
-                employerRepository.findByProfessionalEmail(user.getUsername()).ifPresent(employer -> {
-                    response.put("id", employer.getId());
-                    response.put("companyName", employer.getCompanyName());
-                    response.put("ninea", employer.getNinea());
-                    response.put("activitySector", employer.getActivitySector());
-                    response.put("size", employer.getSize());
-                    response.put("address", employer.getAddress());
-                    response.put("addressComplement", employer.getAddressComplement());
-                    response.put("department", employer.getDepartment());
-                    response.put("country", employer.getCountry());
-                    response.put("website", employer.getWebsite());
-                    response.put("firstName", employer.getFirstName());
-                    response.put("lastName", employer.getLastName());
-                    response.put("professionalEmail", employer.getProfessionalEmail());
-                    response.put("professionalPhone", employer.getProfessionalPhone());
-                    response.put("function", employer.getFunction());
-                    response.put("accountStatus", employer.getAccountStatus().toString());
-                });
-            });
+            // Informations de l'employeur (déjà chargées par la requête de connexion)
+            response.putAll(loginResult.getProfile());
             
             logger.info("Connexion réussie pour l'utilisateur: {}", loginDto.getUsername());
             return new ResponseEntity<>(response, HttpStatus.OK);
@@ -239,6 +241,9 @@ public class AuthController {
             logger.warn("Échec d'authentification pour l'utilisateur: {}, cause: {}", 
                     loginDto.getUsername(), e.getMessage());
             return new ResponseEntity<>(Map.of("message", "Identifiants invalides"), HttpStatus.UNAUTHORIZED);
+        } catch (ServiceOverloadedException e) {
+            logger.warn("Connexion refusée (pool de hachage saturé) pour l'utilisateur: {}", loginDto.getUsername());
+            return serviceOverloaded(e);
         } catch (Exception e) {
             logger.error("Erreur lors de la connexion: {}", e.getMessage());
             return new ResponseEntity<>(Map.of("message", "Erreur lors de la connexion: " + e.getMessage()), 
@@ -250,13 +255,22 @@ public class AuthController {
     public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenDto refreshTokenDto) {
         try {
             // Vérifier si le token de rafraîchissement est valide
-            if (!jwtGenerator.validateToken(refreshTokenDto.getRefreshToken())) {
+            TokenValidationResult result = jwtGenerator.checkToken(refreshTokenDto.getRefreshToken());
+            if (!result.isValid()) {
                 return new ResponseEntity<>(Map.of("message", "Token de rafraîchissement invalide"), 
                         HttpStatus.UNAUTHORIZED);
             }
 
             // Extraire le nom d'utilisateur du token
-            String username = jwtGenerator.getUsernameFromJWT(refreshTokenDto.getRefreshToken());
+            VerifiedToken verifiedToken = result.getToken();
+            String username = verifiedToken.getSubject();
+
+            // Refuser un token de rafraîchissement révoqué (ex: mot de passe modifié depuis son émission)
+            if (verifiedToken.hasSecurityVersion()
+                    && !securityVersionService.isCurrent(username, verifiedToken.getSecurityVersion())) {
+                return new ResponseEntity<>(Map.of("message", "Token de rafraîchissement révoqué"), 
+                        HttpStatus.UNAUTHORIZED);
+            }
 
             // Charger les détails de l'utilisateur
             UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
@@ -282,136 +296,63 @@ public class AuthController {
 
     /**
      * Endpoint pour enregistrer un employeur avec téléchargement de fichiers.
-     * Garantit l'atomicité des opérations : si une partie échoue, aucune donnée n'est enregistrée.
+     * Garantit l'atomicité des opérations : si une partie échoue, aucune donnée ni aucun fichier n'est conservé.
+     * Les fichiers sont déposés puis promus hors transaction (voir EmployerRegistrationService).
      */
     @PostMapping(value = "/register-with-files", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> registerWithFiles(@ModelAttribute MultipartRegisterRequestDTO registerDto) {
-        // 1. Vérifications préalables avant toute création
         try {
-            // 1.1 Vérifier si l'email existe déjà dans la table des utilisateurs
-            if (userRepository.existsByUsername(registerDto.getProfessionalEmail())) {
-                return new ResponseEntity<>(Map.of("message", "Cet email est déjà utilisé"), HttpStatus.BAD_REQUEST);
-            }
-            
-            // 1.2 Vérifier si le numéro d'enregistrement existe déjà
-            if (employerRepository.findByProfessionalEmail(registerDto.getProfessionalEmail()).isPresent()) {
-                return new ResponseEntity<>(Map.of("message", "Ce numéro d'enregistrement est déjà utilisé"), 
-                        HttpStatus.BAD_REQUEST);
-            }
-            
-            // 1.3 Vérifier si l'email existe déjà dans la table des professionnels
-            if (employerRepository.findByProfessionalEmail(registerDto.getProfessionalEmail()).isPresent()) {
-                return new ResponseEntity<>(Map.of("message", "Cet email est déjà associé à un professionnel"), 
-                        HttpStatus.BAD_REQUEST);
-            }
+            // 1. Inscription : dépôt des fichiers, transaction courte, promotion des fichiers
+            RegistrationResult result = employerRegistrationService.register(registerDto);
+            Employer savedEmployer = result.getEmployer();
+            
+            // 2. Générer les tokens directement depuis l'utilisateur enregistré (sans nouvelle vérification BCrypt)
+            String token = jwtGenerator.generateToken(result.getUser());
+            String refreshToken = jwtGenerator.generateRefreshToken(result.getUser());
+            
+            // 3. Journaliser l'inscription réussie
+            logger.info("Nouveau professionnel enregistré: {} {} ({})", 
+                    registerDto.getFirstName(), 
+                    registerDto.getLastName(),
+                    registerDto.getProfessionalEmail());
+    
+            // 4. Préparer la réponse
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Employeur enregistré avec succès. Vos documents seront vérifiés par notre équipe.");
+            response.put("token", token);
+            response.put("refreshToken", refreshToken);
+            response.put("tokenType", "Bearer");
+            response.put("accountStatus", savedEmployer.getAccountStatus().toString());
+            response.put("employerId", savedEmployer.getId());
             
-            // 1.4 Vérification des documents obligatoires
-
-            // 2. Préparation des objets et récupération des rôles
-            Role professionalRole = roleRepository.findByName("EMPLOYER")
-                    .orElseGet(() -> {
-                        Role newRole = new Role("EMPLOYER");
-                        return roleRepository.save(newRole);
-                    });
-            
-            // Créer l'employeur
-            Employer employer = new Employer();
-            employer.setCompanyName(registerDto.getCompanyName());
-            employer.setNinea(registerDto.getNinea());
-            employer.setActivitySector(Employer.ActivitySector.valueOf(registerDto.getActivitySector()));
-            employer.setSize(Employer.Size.valueOf(registerDto.getSize()));
-            employer.setAddress(registerDto.getAddress());
-            employer.setAddressComplement(registerDto.getAddressComplement());
-            employer.setDepartment(Employer.department.valueOf(registerDto.getDepartment()));
-            employer.setCountry(registerDto.getCountry());
-            employer.setWebsite(registerDto.getWebsite());
-            employer.setFirstName(registerDto.getFirstName());
-            employer.setLastName(registerDto.getLastName());
-            employer.setProfessionalEmail(registerDto.getProfessionalEmail());
-            employer.setProfessionalPhone(registerDto.getProfessionalPhone());
-            employer.setProfessionalPhoneFixed(registerDto.getProfessionalPhoneFixed());
-            employer.setFunction(registerDto.getFunction());
-            employer.setPassword(registerDto.getPassword());
-            employer.setAccountStatus(Employer.AccountStatus.PENDING_ACTIVATION);
-            employer.setStatusChangeReason("Inscription initiale en attente d'activation");
-            employer.setStatusChangeDate(java.time.LocalDateTime.now());
-
-            // 3. Commencer une transaction manuelle pour assurer l'atomicité
-            org.springframework.transaction.TransactionDefinition txDef = 
-                new org.springframework.transaction.support.DefaultTransactionDefinition();
-            
-            org.springframework.transaction.TransactionStatus txStatus = transactionManager.getTransaction(txDef);
-            
-            try {
-                // 3.1 Sauvegarder le professionnel pour obtenir son ID
-                Employer savedEmployer = employerRepository.save(employer);
-                String employerId = savedEmployer.getId().toString();
-                
-                // 3.2 Stocker les fichiers obligatoires
-  
-                // 3.3 Stocker les fichiers optionnels
-                if (registerDto.getNINEADocument() != null && !registerDto.getNINEADocument().isEmpty()) {
-                    String nineaPath = fileStorageService.storeFile(registerDto.getNINEADocument(), "ninea", employerId);
-                    savedEmployer.setNINEADocumentPath(nineaPath);
-                }
-                
-                if (registerDto.getRCCMDocument() != null && !registerDto.getRCCMDocument().isEmpty()) {
-                    String rccmPath = fileStorageService.storeFile(registerDto.getRCCMDocument(), "rccm", employerId);
-                    savedEmployer.setRCCMDocumentPath(rccmPath);
-                }
-                
-                // 3.4 Mettre à jour l'employeur avec les chemins de fichiers
-                savedEmployer = employerRepository.save(savedEmployer);
-                
-                // 3.5 Créer l'utilisateur (APRÈS que l'employeur est créé avec succès)
-                UserEntity user = new UserEntity();
-                user.setUsername(registerDto.getProfessionalEmail()); // L'email est utilisé comme nom d'utilisateur
-                user.setPassword(passwordEncoder.encode(registerDto.getPassword()));
-                user.setRoles(Collections.singletonList(professionalRole));
-                UserEntity savedUser = userRepository.save(user);
-                
-                // 3.6 Si tout s'est bien passé, valider la transaction
-                transactionManager.commit(txStatus);
-                
-                // 4. Générer le token pour l'utilisateur inscrit
-                Authentication authentication = authenticationManager.authenticate(
-                        new UsernamePasswordAuthenticationToken(registerDto.getProfessionalEmail(), registerDto.getPassword()));
-                String token = jwtGenerator.generateToken(authentication);
-                String refreshToken = jwtGenerator.generateRefreshToken(authentication);
-                
-                // 5. Journaliser l'inscription réussie
-                logger.info("Nouveau professionnel enregistré: {} {} ({})", 
-                        registerDto.getFirstName(), 
-                        registerDto.getLastName(),
-                        registerDto.getProfessionalEmail());
-        
-                // 6. Préparer la réponse
-                Map<String, Object> response = new HashMap<>();
-                response.put("message", "Employeur enregistré avec succès. Vos documents seront vérifiés par notre équipe.");
-                response.put("token", token);
-                response.put("refreshToken", refreshToken);
-                response.put("tokenType", "Bearer");
-                response.put("accountStatus", employer.getAccountStatus().toString());
-                response.put("employerId", savedEmployer.getId());
-                
-                return new ResponseEntity<>(response, HttpStatus.CREATED);
-                
-            } catch (Exception e) {
-                // En cas d'erreur, annuler la transaction
-                transactionManager.rollback(txStatus);
-                logger.error("Erreur pendant la transaction: {}", e.getMessage(), e);
-                return new ResponseEntity<>(Map.of("message", "Erreur lors de l'enregistrement: " + e.getMessage()),
-                        HttpStatus.INTERNAL_SERVER_ERROR);
-            }
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
             
+        } catch (DuplicateResourceException e) {
+            logger.info("Inscription refusée (doublon) pour: {}", registerDto.getProfessionalEmail());
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (ResourceNotFoundException | UploadOffsetMismatchException e) {
+            // Identifiant d'envoi fractionné inconnu, expiré ou non finalisé
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (ServiceOverloadedException e) {
+            logger.warn("Inscription refusée (pool de hachage saturé) pour: {}", registerDto.getProfessionalEmail());
+            return serviceOverloaded(e);
         } catch (Exception e) {
             // Log détaillé de l'erreur pour le débogage
-            logger.error("Erreur lors de la validation: {}", e.getMessage(), e);
+            logger.error("Erreur lors de l'enregistrement: {}", e.getMessage(), e);
             return new ResponseEntity<>(Map.of("message", "Erreur lors de l'enregistrement: " + e.getMessage()),
                     HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
     
+    /**
+     * Réponse 503 avec l'en-tête Retry-After lorsque le pool de hachage des mots de passe est saturé
+     */
+    private ResponseEntity<?> serviceOverloaded(ServiceOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("message", e.getMessage()));
+    }
+    
     /**
      * Vérifie si un administrateur existe dans le système
      * @return Statut indiquant si un administrateur existe
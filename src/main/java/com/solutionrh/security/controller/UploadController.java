@@ -0,0 +1,147 @@
+package com.solutionrh.security.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.solutionrh.exception.ResourceNotFoundException;
+import com.solutionrh.exception.ServiceOverloadedException;
+import com.solutionrh.exception.UploadMisdirectedException;
+import com.solutionrh.exception.UploadOffsetMismatchException;
+import com.solutionrh.exception.UploadQuotaExceededException;
+import com.solutionrh.exception.UploadTooLargeException;
+import com.solutionrh.security.dto.UploadCreateRequestDTO;
+import com.solutionrh.service.UploadSessionService;
+import com.solutionrh.service.UploadSessionService.UploadSession;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Envoi fractionné et reprenable des documents d'inscription :
+ * création (POST), envoi des morceaux (PUT ?offset=), état pour la reprise (GET), finalisation (POST /complete).
+ * Les identifiants obtenus sont ensuite transmis à /api/auth/register-with-files.
+ * Un envoi créé par un autre nœud est refusé en 421 : la requête doit être routée vers le nœud qui le détient.
+ */
+@RestController
+@RequestMapping("/api/auth/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadController.class);
+
+    private static final HttpStatusCode MISDIRECTED_REQUEST = HttpStatusCode.valueOf(421);
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    public ResponseEntity<?> createUpload(@Valid @RequestBody UploadCreateRequestDTO request,
+                                          HttpServletRequest httpRequest) {
+        try {
+            UploadSession session = uploadSessionService.create(request.getFilename(), request.getSize(),
+                    httpRequest.getRemoteAddr());
+            return new ResponseEntity<>(toResponse(session), HttpStatus.CREATED);
+        } catch (UploadQuotaExceededException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("message", e.getMessage()));
+        } catch (ServiceOverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("message", e.getMessage()));
+        } catch (UploadTooLargeException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.PAYLOAD_TOO_LARGE);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la création de l'envoi: {}", e.getMessage(), e);
+            return new ResponseEntity<>(Map.of("message", "Erreur lors de la création de l'envoi"),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getUpload(@PathVariable String id) {
+        try {
+            return new ResponseEntity<>(toResponse(uploadSessionService.get(id)), HttpStatus.OK);
+        } catch (UploadMisdirectedException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), MISDIRECTED_REQUEST);
+        } catch (ResourceNotFoundException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String id, @RequestParam long offset,
+                                         HttpServletRequest request) {
+        try {
+            long received = uploadSessionService.appendChunk(id, offset, request.getInputStream());
+            return new ResponseEntity<>(Map.of("uploadId", id, "offset", received), HttpStatus.OK);
+        } catch (UploadOffsetMismatchException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage(), "offset", e.getCurrentOffset()),
+                    HttpStatus.CONFLICT);
+        } catch (UploadTooLargeException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.PAYLOAD_TOO_LARGE);
+        } catch (UploadMisdirectedException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), MISDIRECTED_REQUEST);
+        } catch (ResourceNotFoundException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            logger.warn("Morceau interrompu pour l'envoi {}: {}", id, e.getMessage());
+            return new ResponseEntity<>(Map.of("message", "Erreur lors de la réception du morceau"),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String id) {
+        try {
+            return new ResponseEntity<>(toResponse(uploadSessionService.complete(id)), HttpStatus.OK);
+        } catch (UploadOffsetMismatchException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage(), "offset", e.getCurrentOffset()),
+                    HttpStatus.CONFLICT);
+        } catch (UploadMisdirectedException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), MISDIRECTED_REQUEST);
+        } catch (ResourceNotFoundException e) {
+            return new ResponseEntity<>(Map.of("message", e.getMessage()), HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la finalisation de l'envoi {}: {}", id, e.getMessage(), e);
+            return new ResponseEntity<>(Map.of("message", "Erreur lors de la finalisation de l'envoi"),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelUpload(@PathVariable String id) {
+        uploadSessionService.cancel(id);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    private Map<String, Object> toResponse(UploadSession session) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("uploadId", session.getId());
+        response.put("size", session.getSize());
+        response.put("offset", session.getReceived());
+        response.put("completed", session.isCompleted());
+        if (session.isCompleted()) {
+            response.put("sha256", session.getSha256());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,51 @@
+package com.solutionrh.security.dto;
+
+import com.solutionrh.model.Employer;
+
+/**
+ * Projection d'une ligne de la requête de connexion : identifiants, un rôle, et le profil employeur
+ * associé (colonnes nulles si l'utilisateur n'a pas de profil employeur).
+ * La requête retourne une ligne par rôle de l'utilisateur.
+ */
+public interface LoginProjection {
+
+    Long getUserId();
+
+    String getUsername();
+
+    String getPassword();
+
+    String getRoleName();
+
+    Long getEmployerId();
+
+    String getCompanyName();
+
+    String getNinea();
+
+    Employer.ActivitySector getActivitySector();
+
+    Employer.Size getCompanySize();
+
+    String getAddress();
+
+    String getAddressComplement();
+
+    Employer.department getDepartment();
+
+    String getCountry();
+
+    String getWebsite();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getProfessionalEmail();
+
+    String getProfessionalPhone();
+
+    String getJobFunction();
+
+    Employer.AccountStatus getAccountStatus();
+}
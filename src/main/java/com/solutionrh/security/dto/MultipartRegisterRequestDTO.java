@@ -57,5 +57,9 @@ public class MultipartRegisterRequestDTO {
     // Documents à télécharger
     private MultipartFile NINEADocument; // NINEA (Numéro d'identification de l'entreprise)
     private MultipartFile RCCMDocument; // Registre du Commerce et du Crédit Mobilier
+
+    // Alternative aux fichiers ci-dessus : identifiants d'envois fractionnés finalisés (/api/auth/uploads)
+    private String NINEAUploadId;
+    private String RCCMUploadId;
 }
 
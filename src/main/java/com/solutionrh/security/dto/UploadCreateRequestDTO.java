@@ -0,0 +1,16 @@
+package com.solutionrh.security.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadCreateRequestDTO {
+    private String filename; // Nom du fichier côté client (pour l'extension)
+
+    @Positive(message = "La taille du fichier doit être positive")
+    private long size; // Taille totale en octets
+}
@@ -1,9 +1,16 @@
 package com.solutionrh.security.jwt;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -11,12 +18,10 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.security.SignatureException;
-
 
+import com.solutionrh.security.SecurityPaths;
 import com.solutionrh.security.service.CustomUserDetailsService;
+import com.solutionrh.security.service.SecurityVersionService;
 
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -35,11 +40,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtGenerator jwtGenerator;
     private final CustomUserDetailsService customUserDetailsService;
+    private final SecurityVersionService securityVersionService;
+    
+    // Mode "claims-trusted" : le principal est reconstruit depuis le token, sans accès à la base
+    @Value("${jwt.claims-trusted:false}")
+    private boolean claimsTrusted;
     
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
     private static final int BEARER_PREFIX_LENGTH = 7;
     
+    /**
+     * Le filtre n'est pas exécuté sur les routes publiques d'authentification ni sur les requêtes
+     * de pré-vérification CORS : aucun token n'y est recherché, et le corps multipart de
+     * l'inscription n'est donc jamais analysé par le filtre.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+                || SecurityPaths.PUBLIC_AUTH_MATCHER.matches(request);
+    }
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -52,60 +73,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
             
-            // Vérification si le token est expiré
-            if (jwtGenerator.isTokenExpired(token)) {
-                logger.warn("Token expiré détecté pour la requête: {}", request.getRequestURI());
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write("Token expiré. Veuillez vous reconnecter ou rafraîchir votre token.");
+            // Vérification unique du token (signature + expiration), sans exception pour les tokens rejetés
+            TokenValidationResult result = jwtGenerator.checkToken(token);
+            if (!result.isValid()) {
+                rejectToken(request, response, result.getStatus());
                 return;
             }
             
-            try {
-                // Validation du token et authentification
-                if (jwtGenerator.validateToken(token)) {
-                    String username = jwtGenerator.getUsernameFromJWT(token);
-                    
-                    try {
-                        UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-                        
-                        // Création du token d'authentification Spring Security
-                        UsernamePasswordAuthenticationToken authenticationToken = 
-                                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                        authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        
-                        // Définition du contexte de sécurité
-                        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-                        
-                        logger.debug("Utilisateur authentifié: {} pour l'URI: {}", username, request.getRequestURI());
-                    } catch (UsernameNotFoundException e) {
-                        logger.error("Utilisateur {} non trouvé dans la base de données", username);
-                        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                        response.getWriter().write("Utilisateur non trouvé");
-                        return;
-                    }
+            VerifiedToken verifiedToken = result.getToken();
+            String username = verifiedToken.getSubject();
+            
+            if (claimsTrusted) {
+                // Le token doit être un token d'accès portant une version de sécurité à jour
+                if (!verifiedToken.isAccessToken() || !verifiedToken.hasSecurityVersion()
+                        || !securityVersionService.isCurrent(username, verifiedToken.getSecurityVersion())) {
+                    logger.warn("Token révoqué ou incomplet pour l'utilisateur {}", username);
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.getWriter().write("Token révoqué. Veuillez vous reconnecter.");
+                    return;
+                }
+                
+                List<GrantedAuthority> authorities = verifiedToken.getRoles().stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+                authenticate(request, new User(username, "", authorities));
+            } else {
+                try {
+                    authenticate(request, customUserDetailsService.loadUserByUsername(username));
+                } catch (UsernameNotFoundException e) {
+                    logger.error("Utilisateur {} non trouvé dans la base de données", username);
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.getWriter().write("Utilisateur non trouvé");
+                    return;
                 }
-            } catch (ExpiredJwtException e) {
-                logger.warn("Token JWT expiré: {}", e.getMessage());
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write("Token expiré");
-                return;
-            } catch (SignatureException e) {
-                logger.error("Signature JWT invalide: {}", e.getMessage());
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write("Signature de token invalide");
-                return;
-            } catch (MalformedJwtException e) {
-                logger.error("Token JWT malformé: {}", e.getMessage());
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write("Token malformé");
-                return;
-            } catch (Exception e) {
-                logger.error("Erreur lors de la validation du token: {}", e.getMessage());
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.getWriter().write("Erreur d'authentification");
-                return;
             }
             
+            logger.debug("Utilisateur authentifié: {} pour l'URI: {}", username, request.getRequestURI());
+            
             filterChain.doFilter(request, response);
         } catch (Exception e) {
             logger.error("Erreur non gérée dans le filtre JWT: {}", e.getMessage());
@@ -114,6 +118,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
     
+    /**
+     * Répond 401 pour un token rejeté, avec un message selon le statut de validation
+     * 
+     * @param request La requête HTTP
+     * @param response La réponse HTTP
+     * @param status Le statut de validation du token
+     */
+    private void rejectToken(HttpServletRequest request, HttpServletResponse response, TokenStatus status)
+            throws IOException {
+        String message;
+        switch (status) {
+            case EXPIRED:
+                logger.warn("Token expiré détecté pour la requête: {}", request.getRequestURI());
+                message = "Token expiré. Veuillez vous reconnecter ou rafraîchir votre token.";
+                break;
+            case BAD_SIGNATURE:
+                logger.debug("Signature JWT invalide pour la requête: {}", request.getRequestURI());
+                message = "Signature de token invalide";
+                break;
+            case MALFORMED:
+                logger.debug("Token JWT malformé pour la requête: {}", request.getRequestURI());
+                message = "Token malformé";
+                break;
+            default:
+                logger.debug("Token JWT rejeté ({}) pour la requête: {}", status, request.getRequestURI());
+                message = "Erreur d'authentification";
+                break;
+        }
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.getWriter().write(message);
+    }
+    
+    /**
+     * Définit le contexte de sécurité Spring pour l'utilisateur authentifié
+     * 
+     * @param request La requête HTTP
+     * @param userDetails Le principal de l'utilisateur
+     */
+    private void authenticate(HttpServletRequest request, UserDetails userDetails) {
+        // Création du token d'authentification Spring Security
+        UsernamePasswordAuthenticationToken authenticationToken = 
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        
+        // Définition du contexte de sécurité
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+    }
+    
     /**
      * Extrait le token JWT de l'en-tête Authorization de la requête HTTP
      * Format attendu: "Bearer [token]"
@@ -127,10 +179,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return bearerToken.substring(BEARER_PREFIX_LENGTH);
         }
         
-        // Vérification alternative dans les paramètres de requête (utile pour WebSocket)
-        String tokenParam = request.getParameter("token");
-        if (StringUtils.hasText(tokenParam)) {
-            return tokenParam;
+        // Vérification alternative dans les paramètres de requête (utile pour WebSocket),
+        // limitée aux routes autorisées pour ne jamais déclencher l'analyse d'un corps de requête
+        if (SecurityPaths.QUERY_TOKEN_MATCHER.matches(request)) {
+            String tokenParam = request.getParameter("token");
+            if (StringUtils.hasText(tokenParam)) {
+                return tokenParam;
+            }
         }
         
         return null;
@@ -3,6 +3,7 @@ package com.solutionrh.security.jwt;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -14,17 +15,30 @@ import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.SignatureException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import io.jsonwebtoken.security.SignatureException;
+
+import com.solutionrh.security.model.Role;
+import com.solutionrh.security.model.UserEntity;
+import com.solutionrh.security.service.SecurityVersionService;
 
 import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtGenerator {
+    // Revendication portant la version de sécurité de l'utilisateur (révocation des tokens)
+    public static final String SECURITY_VERSION_CLAIM = "sv";
+    
     @Value("${jwt.secret:defaultSecretKey12345678901234567890123456789012}")
     private String secretKey;
     
@@ -34,7 +48,27 @@ public class JwtGenerator {
     @Value("${jwt.refresh-expiration:86400000}")
     private long refreshExpiration; // 24 heures par défaut
     
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+    
+    // Taille maximale acceptée pour un token (au-delà, il est rejeté sans être décodé)
+    private static final int MAX_TOKEN_LENGTH = 8192;
+    
+    // Seul algorithme émis et accepté
+    private static final String ALGORITHM = SignatureAlgorithm.HS512.getValue();
+    
     private Key key;
+    
+    // Parser partagé, construit une seule fois (thread-safe), sans tolérance d'horloge
+    private JwtParser jwtParser;
+    
+    private VerifiedTokenCache verifiedTokenCache;
+    
+    private final SecurityVersionService securityVersionService;
+    
+    public JwtGenerator(SecurityVersionService securityVersionService) {
+        this.securityVersionService = securityVersionService;
+    }
 
     @PostConstruct
     public void init() {
@@ -55,19 +89,44 @@ public class JwtGenerator {
             System.out.println("ATTENTION: Erreur lors de l'initialisation de la clé JWT. "
                     + "Une clé temporaire a été générée pour cette session: " + e.getMessage());
         }
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setAllowedClockSkewSeconds(0)
+                .build();
+        this.verifiedTokenCache = new VerifiedTokenCache(verifiedCacheMaxSize);
     }
     
     // Génération du token JWT
     public String generateToken(Authentication authentication) {
         String username = authentication.getName();
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+        return buildAccessToken(username, roles, securityVersionService.getCurrentVersion(username));
+    }
+    
+    /**
+     * Génère un token d'accès directement depuis un utilisateur déjà chargé ou tout juste enregistré,
+     * sans nouvelle authentification (ni vérification BCrypt, ni lecture en base).
+     * 
+     * @param user L'utilisateur et ses rôles
+     * @return Le token d'accès signé
+     */
+    public String generateToken(UserEntity user) {
+        List<String> roles = user.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toList());
+        return buildAccessToken(user.getUsername(), roles, user.getSecurityVersion());
+    }
+    
+    private String buildAccessToken(String username, List<String> roles, int securityVersion) {
         Date currentDate = new Date();
         Date expireDate = new Date(currentDate.getTime() + jwtExpiration);
         
         // Ajout des rôles de l'utilisateur dans les claims
         Map<String, Object> claims = new HashMap<>();
-        claims.put("roles", authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList()));
+        claims.put("roles", roles);
+        claims.put(SECURITY_VERSION_CLAIM, securityVersion);
         
         return Jwts.builder()
                 .setClaims(claims)
@@ -78,55 +137,165 @@ public class JwtGenerator {
                 .compact();
     }
 
+    /**
+     * Valide le token et retourne un statut plutôt qu'une exception.
+     * Les tokens vides, trop longs, mal structurés ou non signés sont rejetés avec un résultat préalloué avant
+     * tout décodage. Les autres sont vérifiés par le parser partagé (signature, expiration, début de validité),
+     * dont les exceptions sont converties en statut ; seul HS512 est accepté, sans compression ni extension
+     * critique. Un token déjà vérifié et encore valide est servi depuis le cache sans nouvelle vérification.
+     * 
+     * @param token Le token JWT
+     * @return Le résultat de validation (statut et informations du token si valide)
+     */
+    public TokenValidationResult checkToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return TokenValidationResult.failure(TokenStatus.EMPTY);
+        }
+        long now = System.currentTimeMillis();
+        String cacheKey = verifiedTokenCache.keyOf(token);
+        VerifiedToken cached = verifiedTokenCache.get(cacheKey, now);
+        if (cached != null) {
+            return TokenValidationResult.valid(cached);
+        }
+        
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (token.length() > MAX_TOKEN_LENGTH || firstDot <= 0 || secondDot <= firstDot + 1
+                || token.indexOf('.', secondDot + 1) >= 0 || !isBase64Url(token, 0, token.length(), '.')) {
+            return TokenValidationResult.failure(TokenStatus.MALFORMED);
+        }
+        if (secondDot == token.length() - 1) {
+            // Token non signé
+            return TokenValidationResult.failure(TokenStatus.UNSUPPORTED);
+        }
+        
+        VerifiedToken verified;
+        try {
+            Jws<Claims> jws = jwtParser.parseClaimsJws(token);
+            JwsHeader<?> header = jws.getHeader();
+            if (!ALGORITHM.equals(header.getAlgorithm()) || header.getCompressionAlgorithm() != null
+                    || header.containsKey("crit")) {
+                return TokenValidationResult.failure(TokenStatus.UNSUPPORTED);
+            }
+            verified = toVerifiedToken(jws.getBody());
+        } catch (ExpiredJwtException ex) {
+            return TokenValidationResult.failure(TokenStatus.EXPIRED);
+        } catch (PrematureJwtException ex) {
+            return TokenValidationResult.failure(TokenStatus.PREMATURE);
+        } catch (SecurityException ex) { // signature invalide ou clé inadaptée à l'algorithme annoncé
+            return TokenValidationResult.failure(TokenStatus.BAD_SIGNATURE);
+        } catch (UnsupportedJwtException ex) {
+            return TokenValidationResult.failure(TokenStatus.UNSUPPORTED);
+        } catch (JwtException | IllegalArgumentException | ClassCastException ex) {
+            return TokenValidationResult.failure(TokenStatus.MALFORMED);
+        }
+        verifiedTokenCache.put(cacheKey, verified, now);
+        return TokenValidationResult.valid(verified);
+    }
+    
+    /**
+     * Vérifie le token (signature et expiration) en un seul parsing et retourne ses informations.
+     * Variante de {@link #checkToken(String)} qui signale les rejets par exception.
+     * 
+     * @param token Le token JWT
+     * @return Les informations vérifiées du token
+     * @throws io.jsonwebtoken.JwtException si le token est invalide ou expiré
+     * @throws IllegalArgumentException si le token est vide
+     */
+    public VerifiedToken verifyToken(String token) {
+        TokenValidationResult result = checkToken(token);
+        switch (result.getStatus()) {
+            case VALID:
+                return result.getToken();
+            case EXPIRED:
+                throw new ExpiredJwtException(null, null, "Token JWT expiré");
+            case PREMATURE:
+                throw new PrematureJwtException(null, null, "Token JWT pas encore valide");
+            case BAD_SIGNATURE:
+                throw new SignatureException("Signature JWT invalide");
+            case UNSUPPORTED:
+                throw new UnsupportedJwtException("Token JWT non supporté");
+            case EMPTY:
+                throw new IllegalArgumentException("La chaîne de revendications JWT est vide");
+            default:
+                throw new MalformedJwtException("Token JWT malformé");
+        }
+    }
+    
+    // Vérifie que la chaîne ne contient que des caractères base64url (et le séparateur autorisé)
+    private static boolean isBase64Url(String value, int from, int to, char separator) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            boolean allowed = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == separator;
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     // Extraction du username depuis le token
     public String getUsernameFromJWT(String token) {
-        return getClaimsFromToken(token).getSubject();
+        return verifyToken(token).getSubject();
     }
     
     // Extraction des rôles depuis le token
-    @SuppressWarnings("unchecked")
-    public java.util.List<String> getRolesFromJWT(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return (java.util.List<String>) claims.get("roles");
+    public List<String> getRolesFromJWT(String token) {
+        return verifyToken(token).getRoles();
     }
     
-    // Méthode utilitaire pour extraire les claims du token
-    private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    @SuppressWarnings("unchecked")
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        Object roles = claims.get("roles");
+        Object securityVersion = claims.get(SECURITY_VERSION_CLAIM);
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(
+                claims.getSubject(),
+                roles instanceof List ? (List<String>) roles : null,
+                securityVersion instanceof Number ? ((Number) securityVersion).intValue() : -1,
+                issuedAt != null ? issuedAt.getTime() : 0L,
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
     }
 
     // Validation du token
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token);
-            return true;
-        } catch (SignatureException ex) {
-            throw new AuthenticationCredentialsNotFoundException("Signature JWT invalide", ex);
-        } catch (MalformedJwtException ex) {
-            throw new AuthenticationCredentialsNotFoundException("Token JWT malformé", ex);
-        } catch (ExpiredJwtException ex) {
-            throw new AuthenticationCredentialsNotFoundException("Token JWT expiré", ex);
-        } catch (UnsupportedJwtException ex) {
-            throw new AuthenticationCredentialsNotFoundException("Token JWT non supporté", ex);
-        } catch (IllegalArgumentException ex) {
-            throw new AuthenticationCredentialsNotFoundException("La chaîne de revendications JWT est vide", ex);
+        switch (checkToken(token).getStatus()) {
+            case VALID:
+                return true;
+            case BAD_SIGNATURE:
+                throw new AuthenticationCredentialsNotFoundException("Signature JWT invalide");
+            case EXPIRED:
+                throw new AuthenticationCredentialsNotFoundException("Token JWT expiré");
+            case PREMATURE:
+                throw new AuthenticationCredentialsNotFoundException("Token JWT pas encore valide");
+            case UNSUPPORTED:
+                throw new AuthenticationCredentialsNotFoundException("Token JWT non supporté");
+            case EMPTY:
+                throw new AuthenticationCredentialsNotFoundException("La chaîne de revendications JWT est vide");
+            default:
+                throw new AuthenticationCredentialsNotFoundException("Token JWT malformé");
         }
     }
     
     // Génération d'un token de rafraîchissement
     public String generateRefreshToken(Authentication authentication) {
         String username = authentication.getName();
+        return buildRefreshToken(username, securityVersionService.getCurrentVersion(username));
+    }
+    
+    // Génération d'un token de rafraîchissement depuis un utilisateur déjà chargé
+    public String generateRefreshToken(UserEntity user) {
+        return buildRefreshToken(user.getUsername(), user.getSecurityVersion());
+    }
+    
+    private String buildRefreshToken(String username, int securityVersion) {
         Date currentDate = new Date();
         Date expireDate = new Date(currentDate.getTime() + refreshExpiration);
         
         return Jwts.builder()
+                .claim(SECURITY_VERSION_CLAIM, securityVersion)
                 .setSubject(username)
                 .setIssuedAt(currentDate)
                 .setExpiration(expireDate)
@@ -136,11 +305,10 @@ public class JwtGenerator {
     
     // Vérifier si un token est expiré
     public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = getClaimsFromToken(token);
-            return claims.getExpiration().before(new Date());
-        } catch (ExpiredJwtException ex) {
+        if (checkToken(token).getStatus() == TokenStatus.EXPIRED) {
             return true;
         }
+        verifyToken(token); // Lève une exception si le token est invalide pour une autre raison
+        return false;
     }
 }
@@ -0,0 +1,14 @@
+package com.solutionrh.security.jwt;
+
+/**
+ * Statut de validation d'un token JWT
+ */
+public enum TokenStatus {
+    VALID, // Token valide
+    EXPIRED, // Signature valide mais token expiré
+    PREMATURE, // Signature valide mais token pas encore valide (nbf)
+    BAD_SIGNATURE, // Signature invalide
+    MALFORMED, // Structure ou contenu invalide
+    UNSUPPORTED, // Type de token non supporté
+    EMPTY // Token absent ou vide
+}
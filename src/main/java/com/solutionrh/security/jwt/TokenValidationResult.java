@@ -0,0 +1,57 @@
+package com.solutionrh.security.jwt;
+
+import lombok.Getter;
+
+/**
+ * Résultat d'une validation de token sans exception.
+ * Les résultats d'échec sont des instances partagées préallouées : un token rejeté
+ * ne provoque ni allocation d'exception ni capture de pile d'appels.
+ */
+@Getter
+public final class TokenValidationResult {
+
+    private static final TokenValidationResult EXPIRED = new TokenValidationResult(TokenStatus.EXPIRED, null);
+    private static final TokenValidationResult PREMATURE = new TokenValidationResult(TokenStatus.PREMATURE, null);
+    private static final TokenValidationResult BAD_SIGNATURE = new TokenValidationResult(TokenStatus.BAD_SIGNATURE, null);
+    private static final TokenValidationResult MALFORMED = new TokenValidationResult(TokenStatus.MALFORMED, null);
+    private static final TokenValidationResult UNSUPPORTED = new TokenValidationResult(TokenStatus.UNSUPPORTED, null);
+    private static final TokenValidationResult EMPTY = new TokenValidationResult(TokenStatus.EMPTY, null);
+
+    private final TokenStatus status;
+    private final VerifiedToken token; // null si le token n'est pas valide
+
+    private TokenValidationResult(TokenStatus status, VerifiedToken token) {
+        this.status = status;
+        this.token = token;
+    }
+
+    public static TokenValidationResult valid(VerifiedToken token) {
+        return new TokenValidationResult(TokenStatus.VALID, token);
+    }
+
+    /**
+     * Retourne le résultat partagé correspondant à un statut d'échec
+     */
+    public static TokenValidationResult failure(TokenStatus status) {
+        switch (status) {
+            case EXPIRED:
+                return EXPIRED;
+            case PREMATURE:
+                return PREMATURE;
+            case BAD_SIGNATURE:
+                return BAD_SIGNATURE;
+            case MALFORMED:
+                return MALFORMED;
+            case UNSUPPORTED:
+                return UNSUPPORTED;
+            case EMPTY:
+                return EMPTY;
+            default:
+                throw new IllegalArgumentException("Statut d'échec attendu: " + status);
+        }
+    }
+
+    public boolean isValid() {
+        return status == TokenStatus.VALID;
+    }
+}
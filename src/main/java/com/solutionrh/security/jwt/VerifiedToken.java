@@ -0,0 +1,41 @@
+package com.solutionrh.security.jwt;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Résultat immuable d'une vérification de token JWT.
+ * Contient les informations utiles extraites en un seul parsing (sujet, rôles, dates).
+ */
+@Getter
+public class VerifiedToken {
+
+    private final String subject;
+    private final List<String> roles;
+    private final boolean accessToken; // true si le token porte la revendication des rôles (token d'accès)
+    private final int securityVersion; // -1 si le token ne porte pas de version de sécurité
+    private final long issuedAt;
+    private final long expiration;
+
+    public VerifiedToken(String subject, List<String> roles, int securityVersion, long issuedAt, long expiration) {
+        this.subject = subject;
+        this.roles = roles != null ? Collections.unmodifiableList(roles) : Collections.emptyList();
+        this.accessToken = roles != null;
+        this.securityVersion = securityVersion;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    public boolean hasSecurityVersion() {
+        return securityVersion >= 0;
+    }
+
+    /**
+     * Indique si le token est expiré à l'instant donné (en millisecondes)
+     */
+    public boolean isExpiredAt(long now) {
+        return expiration <= now;
+    }
+}
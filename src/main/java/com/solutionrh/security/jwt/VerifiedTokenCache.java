@@ -0,0 +1,92 @@
+package com.solutionrh.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache borné des tokens déjà vérifiés, indexé par l'empreinte SHA-256 du token.
+ * Un token présent dans le cache n'a pas besoin d'une nouvelle vérification HMAC.
+ * Les entrées sont supprimées dès que le token correspondant expire.
+ */
+public class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final Map<String, VerifiedToken> entries;
+
+    // MessageDigest n'est pas thread-safe : une instance par thread
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    });
+
+    public VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<>(Math.max(16, maxSize / 4));
+    }
+
+    /**
+     * Calcule la clé de cache (empreinte SHA-256 encodée) d'un token
+     */
+    public String keyOf(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * Retourne le token vérifié associé à la clé, ou null s'il est absent ou expiré
+     */
+    public VerifiedToken get(String key, long now) {
+        VerifiedToken cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpiredAt(now)) {
+            entries.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Ajoute un token vérifié au cache en respectant la taille maximale
+     */
+    public void put(String key, VerifiedToken token, long now) {
+        if (maxSize <= 0 || token.isExpiredAt(now)) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(key, token);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    // Supprime d'abord les entrées expirées, puis une fraction arbitraire si le cache reste plein
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.isExpiredAt(now));
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toRemove > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            toRemove--;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.solutionrh.security.model;
 
+import com.solutionrh.model.IdAllocation;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -14,7 +17,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class Role {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "roles_id")
+    @TableGenerator(name = "roles_id", table = IdAllocation.TABLE, pkColumnName = IdAllocation.SEGMENT_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN, pkColumnValue = IdAllocation.ROLES,
+            allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
     
     private String name;
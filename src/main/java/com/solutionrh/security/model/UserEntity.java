@@ -3,6 +3,8 @@ package com.solutionrh.security.model;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.solutionrh.model.IdAllocation;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -14,6 +16,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,18 +26,28 @@ import lombok.NoArgsConstructor;
 @Entity
 @Data
 @NoArgsConstructor
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = @UniqueConstraint(name = UserEntity.UK_USERNAME, columnNames = "username"))
 public class UserEntity {
+    // Nom de la contrainte d'unicité, reconnu lors d'une inscription concurrente en doublon
+    public static final String UK_USERNAME = "uk_users_username";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "users_id")
+    @TableGenerator(name = "users_id", table = IdAllocation.TABLE, pkColumnName = IdAllocation.SEGMENT_COLUMN,
+            valueColumnName = IdAllocation.VALUE_COLUMN, pkColumnValue = IdAllocation.USERS,
+            allocationSize = IdAllocation.ALLOCATION_SIZE)
     private Long id;
 
-    @Column(name = "username", nullable = false, unique = true)
+    @Column(name = "username", nullable = false)
     private String username;
 
     @Column(name = "password", nullable = false)
     private String password;
 
+    // Version de sécurité : incrémentée à chaque changement qui doit révoquer les tokens émis
+    @Column(name = "security_version", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private int securityVersion;
+
     public UserEntity(String username, String password) {
         this.username = username;
         this.password = password;
@@ -1,11 +1,15 @@
 package com.solutionrh.security.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.solutionrh.security.dto.LoginProjection;
 import com.solutionrh.security.model.UserEntity;
 
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
@@ -20,4 +24,41 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
      */
     @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM UserEntity u JOIN u.roles r WHERE r.name = :roleName")
     boolean existsByRoleName(@Param("roleName") String roleName);
+    
+    /**
+     * Récupère uniquement la version de sécurité d'un utilisateur (sans charger l'entité ni ses rôles)
+     * 
+     * @param username le nom d'utilisateur (email)
+     * @return la version de sécurité si l'utilisateur existe
+     */
+    @Query("SELECT u.securityVersion FROM UserEntity u WHERE u.username = :username")
+    Optional<Integer> findSecurityVersionByUsername(@Param("username") String username);
+    
+    /**
+     * Incrémente la version de sécurité d'un lot d'utilisateurs (révocation des tokens émis)
+     *
+     * @param usernames les noms d'utilisateur (emails)
+     * @return le nombre d'utilisateurs modifiés
+     */
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.securityVersion = u.securityVersion + 1 WHERE u.username IN :usernames")
+    int incrementSecurityVersions(@Param("usernames") Collection<String> usernames);
+    
+    /**
+     * Charge en une seule requête les identifiants, les rôles et le profil employeur d'un utilisateur.
+     * Une ligne est retournée par rôle ; les colonnes employeur sont nulles si aucun profil n'est associé.
+     * 
+     * @param username le nom d'utilisateur (email)
+     * @return les lignes de connexion (vide si l'utilisateur n'existe pas)
+     */
+    @Query("SELECT u.id AS userId, u.username AS username, u.password AS password, r.name AS roleName, "
+            + "e.id AS employerId, e.companyName AS companyName, e.ninea AS ninea, "
+            + "e.activitySector AS activitySector, e.size AS companySize, e.address AS address, "
+            + "e.addressComplement AS addressComplement, e.department AS department, e.country AS country, "
+            + "e.website AS website, e.firstName AS firstName, e.lastName AS lastName, "
+            + "e.professionalEmail AS professionalEmail, e.professionalPhone AS professionalPhone, "
+            + "e.function AS jobFunction, e.accountStatus AS accountStatus "
+            + "FROM UserEntity u LEFT JOIN u.roles r LEFT JOIN Employer e ON e.professionalEmail = u.username "
+            + "WHERE u.username = :username")
+    List<LoginProjection> findLoginRowsByUsername(@Param("username") String username);
 }
@@ -9,7 +9,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.solutionrh.dao.EmployerRepository;
 import com.solutionrh.model.Employer;
@@ -26,16 +27,37 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final EmployerRepository employerRepository;
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final TransactionTemplate readOnlyTransaction;
 
     public CustomUserDetailsService(EmployerRepository employerRepository,
-                                   UserRepository userRepository) {
+                                   UserRepository userRepository,
+                                   UserDetailsCache userDetailsCache,
+                                   PlatformTransactionManager transactionManager) {
         this.employerRepository = employerRepository;
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
+    /**
+     * Charge le principal depuis le cache, ou depuis la base (en transaction lecture seule) en cas d'absence.
+     * Aucune connexion n'est ouverte lorsque le principal est déjà en cache.
+     */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        UserDetails cached = userDetailsCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+        
+        UserDetails userDetails = readOnlyTransaction.execute(status -> loadFromDatabase(email));
+        userDetailsCache.put(userDetails);
+        return userDetails;
+    }
+
+    private UserDetails loadFromDatabase(String email) {
         logger.debug("Tentative d'authentification pour l'utilisateur: {}", email);
         
         // Stratégie de recherche double:
@@ -77,8 +99,11 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("Compte inactif ou en attente de vérification: " + email);
         }
         
-        // L'employeur implémente déjà UserDetails, donc on peut le retourner directement
+        // Version allégée de l'employeur (pas d'entité JPA conservée dans le principal)
         logger.debug("Utilisateur authentifié avec succès: {}", email);
-        return employer;
+        return new org.springframework.security.core.userdetails.User(
+                employer.getUsername(),
+                employer.getPassword(),
+                employer.getAuthorities());
     }
 }
@@ -0,0 +1,28 @@
+package com.solutionrh.security.service;
+
+import org.springframework.stereotype.Component;
+
+import com.solutionrh.model.Employer;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de l'entité Employer : retire le principal du cache d'authentification
+ * lorsqu'un employeur est modifié (changement de statut du compte notamment) ou supprimé.
+ */
+@Component
+public class EmployerPrincipalListener {
+
+    private final UserDetailsCache userDetailsCache;
+
+    public EmployerPrincipalListener(UserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evictPrincipal(Employer employer) {
+        userDetailsCache.evict(employer.getProfessionalEmail());
+    }
+}
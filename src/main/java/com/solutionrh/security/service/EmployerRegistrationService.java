@@ -0,0 +1,333 @@
+package com.solutionrh.security.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.solutionrh.dao.DocumentBlobRepository;
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.exception.DuplicateResourceException;
+import com.solutionrh.model.DocumentProcessing;
+import com.solutionrh.model.Employer;
+import com.solutionrh.security.dto.MultipartRegisterRequestDTO;
+import com.solutionrh.security.model.Role;
+import com.solutionrh.security.model.UserEntity;
+import com.solutionrh.security.repository.RoleRepository;
+import com.solutionrh.security.repository.UserRepository;
+import com.solutionrh.service.DocumentProcessingService;
+import com.solutionrh.service.FileStorageService;
+import com.solutionrh.service.FileStorageService.StagedFile;
+import com.solutionrh.service.UploadSessionService;
+
+import lombok.Getter;
+
+/**
+ * Inscription d'un employeur avec ses documents, en trois phases :
+ * <ol>
+ * <li>dépôt des fichiers dans la zone temporaire et hachage du mot de passe, sans connexion base de données ;</li>
+ * <li>transaction courte : employeur, utilisateur et rôle écrits en un seul flush ;</li>
+ * <li>promotion des fichiers par déplacement atomique.</li>
+ * </ol>
+ * Si la transaction échoue, les fichiers déposés sont supprimés. Si la promotion échoue, l'inscription
+ * est annulée par une transaction de compensation. Une fois les fichiers promus, leur traitement
+ * (validation, optimisation, miniature) est soumis en arrière-plan sans être attendu.
+ */
+@Service
+public class EmployerRegistrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployerRegistrationService.class);
+
+    private final EmployerRepository employerRepository;
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final FileStorageService fileStorageService;
+    private final DocumentBlobRepository documentBlobRepository;
+    private final UploadSessionService uploadSessionService;
+    private final DocumentProcessingService documentProcessingService;
+    private final TransactionTemplate transactionTemplate;
+
+    public EmployerRegistrationService(EmployerRepository employerRepository,
+                                       UserRepository userRepository,
+                                       RoleRepository roleRepository,
+                                       PasswordEncoder passwordEncoder,
+                                       FileStorageService fileStorageService,
+                                       DocumentBlobRepository documentBlobRepository,
+                                       UploadSessionService uploadSessionService,
+                                       DocumentProcessingService documentProcessingService,
+                                       PlatformTransactionManager transactionManager) {
+        this.employerRepository = employerRepository;
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.fileStorageService = fileStorageService;
+        this.documentBlobRepository = documentBlobRepository;
+        this.uploadSessionService = uploadSessionService;
+        this.documentProcessingService = documentProcessingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Enregistre l'employeur, son compte utilisateur et ses documents
+     *
+     * @param registerDto les informations d'inscription et les documents
+     * @return l'employeur et l'utilisateur enregistrés
+     * @throws DuplicateResourceException si l'email ou le NINEA est déjà utilisé
+     * @throws IOException si un document ne peut pas être stocké
+     */
+    public RegistrationResult register(MultipartRegisterRequestDTO registerDto) throws IOException {
+        // Vérifier en une seule requête l'email (users, employer) et le NINEA
+        employerRepository.findRegistrationConflict(registerDto.getProfessionalEmail(), registerDto.getNinea())
+                .ifPresent(conflict -> {
+                    throw new DuplicateResourceException(duplicateMessage(conflict));
+                });
+
+        Employer employer = toEmployer(registerDto);
+
+        // Phase 1 : dépôt des fichiers et hachage (pool dédié), aucune connexion tenue
+        StagedFile nineaFile = null;
+        StagedFile rccmFile = null;
+        String encodedPassword;
+        try {
+            nineaFile = stage(registerDto.getNINEAUploadId(), registerDto.getNINEADocument(), "ninea");
+            rccmFile = stage(registerDto.getRCCMUploadId(), registerDto.getRCCMDocument(), "rccm");
+            encodedPassword = passwordEncoder.encode(registerDto.getPassword());
+        } catch (IOException | RuntimeException e) {
+            discard(registerDto.getNINEAUploadId(), nineaFile);
+            discard(registerDto.getRCCMUploadId(), rccmFile);
+            throw e;
+        }
+
+        // Phase 2 : transaction courte, sans entrée/sortie disque
+        RegistrationResult result;
+        List<Long> processingIds = new ArrayList<>();
+        try {
+            StagedFile ninea = nineaFile;
+            StagedFile rccm = rccmFile;
+            result = transactionTemplate.execute(status -> save(employer, encodedPassword, ninea, rccm, processingIds));
+        } catch (DataIntegrityViolationException e) {
+            // Inscription concurrente : les contraintes d'unicité ont détecté le doublon
+            discard(registerDto.getNINEAUploadId(), nineaFile);
+            discard(registerDto.getRCCMUploadId(), rccmFile);
+            String conflict = conflictOf(e);
+            if (conflict == null) {
+                throw e;
+            }
+            throw new DuplicateResourceException(duplicateMessage(conflict), e);
+        } catch (RuntimeException e) {
+            discard(registerDto.getNINEAUploadId(), nineaFile);
+            discard(registerDto.getRCCMUploadId(), rccmFile);
+            throw e;
+        }
+
+        // Phase 3 : promotion atomique des fichiers vers leur emplacement définitif
+        Employer savedEmployer = result.getEmployer();
+        List<String> promoted = new ArrayList<>();
+        try {
+            promote(nineaFile, savedEmployer.getNINEADocumentPath(), promoted);
+            promote(rccmFile, savedEmployer.getRCCMDocumentPath(), promoted);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Échec de la promotion des documents de {}, annulation de l'inscription",
+                    savedEmployer.getProfessionalEmail(), e);
+            // Les blobs partagés ne sont jamais supprimés ici : seule leur référence est retirée
+            promoted.stream()
+                    .filter(path -> !fileStorageService.isContentAddressed(path))
+                    .forEach(fileStorageService::deleteFile);
+            discard(registerDto.getNINEAUploadId(), nineaFile);
+            discard(registerDto.getRCCMUploadId(), rccmFile);
+            transactionTemplate.executeWithoutResult(status -> {
+                releaseBlob(savedEmployer.getNINEADocumentPath());
+                releaseBlob(savedEmployer.getRCCMDocumentPath());
+                documentProcessingService.deleteFor(savedEmployer.getId());
+                // Les rôles sont détachés avant suppression : la cascade ne doit pas atteindre le rôle partagé
+                userRepository.findById(result.getUser().getId()).ifPresent(user -> {
+                    user.setRoles(new ArrayList<>());
+                    userRepository.delete(user);
+                });
+                employerRepository.deleteById(savedEmployer.getId());
+            });
+            throw e;
+        }
+
+        // Inscription validée : les envois par morceaux utilisés peuvent être oubliés
+        release(registerDto.getNINEAUploadId());
+        release(registerDto.getRCCMUploadId());
+
+        // Traitement des documents en arrière-plan : la réponse n'attend pas
+        processingIds.forEach(documentProcessingService::submit);
+        return result;
+    }
+
+    // Document déjà envoyé par morceaux (identifiant d'envoi) ou fichier joint au formulaire
+    private StagedFile stage(String uploadId, MultipartFile file, String category) throws IOException {
+        if (StringUtils.hasText(uploadId)) {
+            return uploadSessionService.claim(uploadId, category);
+        }
+        return fileStorageService.stageFile(file, category);
+    }
+
+    // En cas d'échec, un envoi par morceaux est rendu au client (nouvel essai possible), un fichier joint est supprimé
+    private void discard(String uploadId, StagedFile file) {
+        if (file == null) {
+            return;
+        }
+        if (StringUtils.hasText(uploadId)) {
+            uploadSessionService.unclaim(uploadId);
+        } else {
+            fileStorageService.discard(file);
+        }
+    }
+
+    private void release(String uploadId) {
+        if (StringUtils.hasText(uploadId)) {
+            uploadSessionService.release(uploadId);
+        }
+    }
+
+    private RegistrationResult save(Employer employer, String encodedPassword, StagedFile ninea, StagedFile rccm,
+                                    List<Long> processingIds) {
+        Role professionalRole = roleRepository.findByName("EMPLOYER")
+                .orElseGet(() -> roleRepository.save(new Role("EMPLOYER")));
+
+        // L'ID est alloué sans insertion : les chemins définitifs sont calculés avant le flush
+        Employer savedEmployer = employerRepository.save(employer);
+        String employerId = savedEmployer.getId().toString();
+        if (ninea != null) {
+            savedEmployer.setNINEADocumentPath(fileStorageService.finalPathOf(ninea, employerId));
+        }
+        if (rccm != null) {
+            savedEmployer.setRCCMDocumentPath(fileStorageService.finalPathOf(rccm, employerId));
+        }
+        prepareProcessing(savedEmployer.getId(), "ninea", savedEmployer.getNINEADocumentPath(), processingIds);
+        prepareProcessing(savedEmployer.getId(), "rccm", savedEmployer.getRCCMDocumentPath(), processingIds);
+
+        UserEntity user = new UserEntity();
+        user.setUsername(employer.getProfessionalEmail()); // L'email est utilisé comme nom d'utilisateur
+        user.setPassword(encodedPassword);
+        user.setRoles(Collections.singletonList(professionalRole));
+        // Un seul flush : employeur, utilisateur et rôle partent en insertions groupées
+        UserEntity savedUser = userRepository.saveAndFlush(user);
+
+        // Références aux blobs, après le flush pour ne pas le fractionner
+        acquireBlob(ninea, savedEmployer.getNINEADocumentPath());
+        acquireBlob(rccm, savedEmployer.getRCCMDocumentPath());
+        return new RegistrationResult(savedEmployer, savedUser);
+    }
+
+    private void prepareProcessing(Long employerId, String category, String documentPath, List<Long> processingIds) {
+        DocumentProcessing processing = documentProcessingService.prepare(employerId, category, documentPath);
+        if (processing != null) {
+            processingIds.add(processing.getId());
+        }
+    }
+
+    private void acquireBlob(StagedFile staged, String relativePath) {
+        if (staged != null && fileStorageService.isContentAddressed(relativePath)) {
+            documentBlobRepository.acquire(relativePath, staged.getSha256(), staged.getSize());
+        }
+    }
+
+    private void releaseBlob(String relativePath) {
+        if (fileStorageService.isContentAddressed(relativePath)) {
+            documentBlobRepository.release(relativePath);
+        }
+    }
+
+    private void promote(StagedFile staged, String relativePath, List<String> promoted) throws IOException {
+        if (staged != null) {
+            fileStorageService.promote(staged, relativePath);
+            promoted.add(relativePath);
+        }
+    }
+
+    private Employer toEmployer(MultipartRegisterRequestDTO registerDto) {
+        Employer employer = new Employer();
+        employer.setCompanyName(registerDto.getCompanyName());
+        employer.setNinea(registerDto.getNinea());
+        employer.setActivitySector(Employer.ActivitySector.valueOf(registerDto.getActivitySector()));
+        employer.setSize(Employer.Size.valueOf(registerDto.getSize()));
+        employer.setAddress(registerDto.getAddress());
+        employer.setAddressComplement(registerDto.getAddressComplement());
+        employer.setDepartment(Employer.department.valueOf(registerDto.getDepartment()));
+        employer.setCountry(registerDto.getCountry());
+        employer.setWebsite(registerDto.getWebsite());
+        employer.setFirstName(registerDto.getFirstName());
+        employer.setLastName(registerDto.getLastName());
+        employer.setProfessionalEmail(registerDto.getProfessionalEmail());
+        employer.setProfessionalPhone(registerDto.getProfessionalPhone());
+        employer.setProfessionalPhoneFixed(registerDto.getProfessionalPhoneFixed());
+        employer.setFunction(registerDto.getFunction());
+        employer.setPassword(registerDto.getPassword());
+        employer.setAccountStatus(Employer.AccountStatus.PENDING_ACTIVATION);
+        employer.setStatusChangeReason("Inscription initiale en attente d'activation");
+        employer.setStatusChangeDate(LocalDateTime.now());
+        return employer;
+    }
+
+    /**
+     * Message d'erreur correspondant à la clé en conflit lors d'une inscription
+     */
+    private String duplicateMessage(String conflict) {
+        switch (conflict) {
+            case EmployerRepository.DUPLICATE_NINEA:
+                return "Ce numéro NINEA est déjà utilisé";
+            case EmployerRepository.DUPLICATE_EMAIL:
+                return "Cet email est déjà associé à un professionnel";
+            default:
+                return "Cet email est déjà utilisé";
+        }
+    }
+
+    /**
+     * Clé en conflit d'après le nom de la contrainte d'unicité violée, null pour toute autre violation
+     * (colonne obligatoire, valeur trop longue, clé étrangère...)
+     */
+    static String conflictOf(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                // Le nom rapporté peut être préfixé par la table (MySQL : "employer.uk_employer_ninea")
+                String name = violation.getConstraintName() != null
+                        ? violation.getConstraintName().toLowerCase(Locale.ROOT) : "";
+                if (name.contains(Employer.UK_NINEA)) {
+                    return EmployerRepository.DUPLICATE_NINEA;
+                }
+                if (name.contains(Employer.UK_PROFESSIONAL_EMAIL)) {
+                    return EmployerRepository.DUPLICATE_EMAIL;
+                }
+                if (name.contains(UserEntity.UK_USERNAME)) {
+                    return EmployerRepository.DUPLICATE_USERNAME;
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Résultat d'une inscription réussie
+     */
+    @Getter
+    public static class RegistrationResult {
+        private final Employer employer;
+        private final UserEntity user;
+
+        public RegistrationResult(Employer employer, UserEntity user) {
+            this.employer = employer;
+            this.user = user;
+        }
+    }
+}
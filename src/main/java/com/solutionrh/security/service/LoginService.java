@@ -0,0 +1,137 @@
+package com.solutionrh.security.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.model.Employer;
+import com.solutionrh.security.dto.LoginProjection;
+import com.solutionrh.security.repository.UserRepository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Authentification de connexion en un seul aller-retour base de données :
+ * identifiants, rôles et profil employeur sont lus par la même requête, puis le mot de passe
+ * est vérifié sans repasser par l'AuthenticationManager.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoginService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginService.class);
+
+    private final UserRepository userRepository;
+    private final EmployerRepository employerRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final AuthenticationManager authenticationManager;
+
+    /**
+     * Authentifie l'utilisateur et retourne son authentification et son profil employeur
+     *
+     * @param username le nom d'utilisateur (email)
+     * @param password le mot de passe en clair
+     * @return le résultat de la connexion
+     * @throws org.springframework.security.core.AuthenticationException si les identifiants sont invalides
+     */
+    public LoginResult login(String username, String password) {
+        List<LoginProjection> rows = userRepository.findLoginRowsByUsername(username);
+        if (rows.isEmpty()) {
+            // Compte présent uniquement dans la table employer : chemin standard de Spring Security
+            return loginWithAuthenticationManager(username, password);
+        }
+
+        LoginProjection first = rows.get(0);
+        if (!passwordEncoder.matches(password, first.getPassword())) {
+            throw new BadCredentialsException("Identifiants invalides");
+        }
+
+        Set<String> roles = rows.stream()
+                .map(LoginProjection::getRoleName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+                first.getUsername(), null,
+                roles.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList()));
+
+        Map<String, Object> profile = new HashMap<>();
+        if (first.getEmployerId() != null) {
+            profile.put("id", first.getEmployerId());
+            profile.put("companyName", first.getCompanyName());
+            profile.put("ninea", first.getNinea());
+            profile.put("activitySector", first.getActivitySector());
+            profile.put("size", first.getCompanySize());
+            profile.put("address", first.getAddress());
+            profile.put("addressComplement", first.getAddressComplement());
+            profile.put("department", first.getDepartment());
+            profile.put("country", first.getCountry());
+            profile.put("website", first.getWebsite());
+            profile.put("firstName", first.getFirstName());
+            profile.put("lastName", first.getLastName());
+            profile.put("professionalEmail", first.getProfessionalEmail());
+            profile.put("professionalPhone", first.getProfessionalPhone());
+            profile.put("function", first.getJobFunction());
+            profile.put("accountStatus", first.getAccountStatus().toString());
+        }
+        return new LoginResult(authentication, profile);
+    }
+
+    private LoginResult loginWithAuthenticationManager(String username, String password) {
+        logger.debug("Aucun utilisateur {} dans la table users, authentification standard", username);
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(username, password));
+
+        Map<String, Object> profile = new HashMap<>();
+        employerRepository.findByProfessionalEmail(username).ifPresent(employer -> putProfile(profile, employer));
+        return new LoginResult(authentication, profile);
+    }
+
+    private void putProfile(Map<String, Object> profile, Employer employer) {
+        profile.put("id", employer.getId());
+        profile.put("companyName", employer.getCompanyName());
+        profile.put("ninea", employer.getNinea());
+        profile.put("activitySector", employer.getActivitySector());
+        profile.put("size", employer.getSize());
+        profile.put("address", employer.getAddress());
+        profile.put("addressComplement", employer.getAddressComplement());
+        profile.put("department", employer.getDepartment());
+        profile.put("country", employer.getCountry());
+        profile.put("website", employer.getWebsite());
+        profile.put("firstName", employer.getFirstName());
+        profile.put("lastName", employer.getLastName());
+        profile.put("professionalEmail", employer.getProfessionalEmail());
+        profile.put("professionalPhone", employer.getProfessionalPhone());
+        profile.put("function", employer.getFunction());
+        profile.put("accountStatus", employer.getAccountStatus().toString());
+    }
+
+    /**
+     * Résultat d'une connexion réussie
+     */
+    @Getter
+    public static class LoginResult {
+        private final Authentication authentication;
+        private final Map<String, Object> profile; // vide si l'utilisateur n'a pas de profil employeur
+
+        public LoginResult(Authentication authentication, Map<String, Object> profile) {
+            this.authentication = authentication;
+            this.profile = profile;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.solutionrh.security.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limitation en mémoire des tentatives de connexion, par nom d'utilisateur et par adresse IP (token bucket).
+ * Une tentative refusée est rejetée avant tout calcul BCrypt et ne coûte qu'une lecture de table et un
+ * verrou court. Les seaux sont protégés par des verrous répartis (lock striping) et les seaux inactifs
+ * sont supprimés par une roue temporelle : chaque clé n'est examinée qu'une fois par période d'inactivité.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int STRIPES = 64;
+    private static final int MAX_WHEEL_SLOTS = 1024;
+
+    private final boolean enabled;
+    private final BucketPolicy usernamePolicy;
+    private final BucketPolicy ipPolicy;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+
+    // Roue temporelle : une file de clés à examiner par tick
+    private final long idleMillis;
+    private final long tickMillis;
+    private final List<ConcurrentLinkedQueue<String>> wheel;
+    private final AtomicLong processedTick;
+
+    @Autowired
+    public LoginThrottle(
+            @Value("${security.login-throttle.enabled:true}") boolean enabled,
+            @Value("${security.login-throttle.username.capacity:5}") int usernameCapacity,
+            @Value("${security.login-throttle.username.refill-per-minute:5}") double usernameRefillPerMinute,
+            @Value("${security.login-throttle.ip.capacity:20}") int ipCapacity,
+            @Value("${security.login-throttle.ip.refill-per-minute:20}") double ipRefillPerMinute) {
+        this(enabled, new BucketPolicy(usernameCapacity, usernameRefillPerMinute),
+                new BucketPolicy(ipCapacity, ipRefillPerMinute), System::currentTimeMillis);
+    }
+
+    LoginThrottle(boolean enabled, BucketPolicy usernamePolicy, BucketPolicy ipPolicy, LongSupplier clock) {
+        this.enabled = enabled;
+        this.usernamePolicy = usernamePolicy;
+        this.ipPolicy = ipPolicy;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        // Un seau inactif depuis le temps de remplissage complet est équivalent à un seau neuf
+        this.idleMillis = Math.max(usernamePolicy.fullRefillMillis(), ipPolicy.fullRefillMillis());
+        this.tickMillis = Math.max(1000L, idleMillis / MAX_WHEEL_SLOTS);
+        int slots = (int) (idleMillis / tickMillis) + 2;
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+        this.processedTick = new AtomicLong(clock.getAsLong() / tickMillis);
+    }
+
+    /**
+     * Consomme un jeton pour l'adresse IP puis pour le nom d'utilisateur
+     *
+     * @param username le nom d'utilisateur de la tentative
+     * @param clientIp l'adresse IP du client
+     * @return 0 si la tentative est autorisée, sinon le délai conseillé (en secondes) avant une nouvelle tentative
+     */
+    public long tryAcquire(String username, String clientIp) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        expireIdleBuckets(now);
+
+        long retryAfter = tryConsume("ip:" + clientIp, ipPolicy, now);
+        if (retryAfter > 0) {
+            return retryAfter;
+        }
+        return tryConsume("u:" + username.trim().toLowerCase(Locale.ROOT), usernamePolicy, now);
+    }
+
+    int trackedKeys() {
+        return buckets.size();
+    }
+
+    private long tryConsume(String key, BucketPolicy policy, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            Bucket created = new Bucket(policy.capacity, now);
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+                schedule(key, now + idleMillis);
+            }
+        }
+        synchronized (stripeFor(key)) {
+            double tokens = Math.min(policy.capacity,
+                    bucket.tokens + (now - bucket.lastRefill) * policy.tokensPerMilli);
+            bucket.lastRefill = now;
+            if (tokens >= 1.0) {
+                bucket.tokens = tokens - 1.0;
+                return 0;
+            }
+            bucket.tokens = tokens;
+            return Math.max(1L, (long) Math.ceil((1.0 - tokens) / policy.tokensPerMilli / 1000.0));
+        }
+    }
+
+    // Avance la roue jusqu'au tick courant ; un seul thread traite un tick donné
+    private void expireIdleBuckets(long now) {
+        long currentTick = now / tickMillis;
+        long lastTick = processedTick.get();
+        if (currentTick <= lastTick || !processedTick.compareAndSet(lastTick, currentTick)) {
+            return;
+        }
+        long firstTick = Math.max(lastTick + 1, currentTick - wheel.size() + 1);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            ConcurrentLinkedQueue<String> slot = wheel.get((int) (tick % wheel.size()));
+            for (int pending = slot.size(); pending > 0; pending--) {
+                String key = slot.poll();
+                if (key == null) {
+                    break;
+                }
+                Bucket bucket = buckets.get(key);
+                if (bucket == null) {
+                    continue;
+                }
+                synchronized (stripeFor(key)) {
+                    if (now - bucket.lastRefill >= idleMillis) {
+                        buckets.remove(key, bucket);
+                    } else {
+                        schedule(key, bucket.lastRefill + idleMillis);
+                    }
+                }
+            }
+        }
+    }
+
+    private void schedule(String key, long expiresAt) {
+        long tick = Math.max(expiresAt / tickMillis, processedTick.get() + 1);
+        wheel.get((int) (tick % wheel.size())).add(key);
+    }
+
+    private Object stripeFor(String key) {
+        return stripes[key.hashCode() & (STRIPES - 1)];
+    }
+
+    /**
+     * Paramètres d'un seau : capacité (rafale autorisée) et débit de remplissage
+     */
+    static final class BucketPolicy {
+        private final int capacity;
+        private final double tokensPerMilli;
+
+        BucketPolicy(int capacity, double refillPerMinute) {
+            this.capacity = Math.max(1, capacity);
+            this.tokensPerMilli = Math.max(refillPerMinute, 0.001) / 60000.0;
+        }
+
+        long fullRefillMillis() {
+            return (long) Math.ceil(capacity / tokensPerMilli);
+        }
+    }
+
+    // État d'un seau, protégé par le verrou de sa bande
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefill;
+
+        private Bucket(double tokens, long lastRefill) {
+            this.tokens = tokens;
+            this.lastRefill = lastRefill;
+        }
+    }
+}
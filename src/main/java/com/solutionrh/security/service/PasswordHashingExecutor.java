@@ -0,0 +1,131 @@
+package com.solutionrh.security.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.solutionrh.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Pool dédié aux calculs BCrypt (hachage et vérification des mots de passe).
+ * Le pool est dimensionné sur le nombre de processeurs avec une file bornée : lorsqu'elle est pleine,
+ * la demande est refusée immédiatement ({@link ServiceOverloadedException}, HTTP 503) au lieu
+ * d'occuper les threads Tomcat, afin qu'une rafale de connexions n'affame pas le reste de l'API.
+ */
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final long timeoutMillis;
+
+    private final Timer hashTimer;
+    private final Timer waitTimer;
+    private final Counter rejections;
+
+    public PasswordHashingExecutor(
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.retry-after-seconds:2}") long retryAfterSeconds,
+            @Value("${security.password-hashing.timeout-ms:10000}") long timeoutMillis,
+            MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.timeoutMillis = timeoutMillis;
+
+        this.hashTimer = Timer.builder("security.password.hashing.duration")
+                .description("Durée d'un calcul BCrypt")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("security.password.hashing.wait")
+                .description("Temps d'attente dans la file avant le calcul BCrypt")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("security.password.hashing.rejections")
+                .description("Demandes refusées car la file de hachage est pleine")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Nombre de calculs BCrypt en attente")
+                .register(meterRegistry);
+        Gauge.builder("security.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Nombre de calculs BCrypt en cours")
+                .register(meterRegistry);
+
+        logger.info("Pool de hachage des mots de passe: {} threads, file de {} demandes", poolSize, queueCapacity);
+    }
+
+    /**
+     * Exécute un calcul de mot de passe sur le pool dédié et attend son résultat
+     *
+     * @param task le calcul à exécuter
+     * @return le résultat du calcul
+     * @throws ServiceOverloadedException si la file est pleine ou si le délai d'attente est dépassé
+     */
+    public <T> T execute(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new ServiceOverloadedException("Service momentanément surchargé, veuillez réessayer", retryAfterSeconds);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new ServiceOverloadedException("Service momentanément surchargé, veuillez réessayer", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Calcul du mot de passe interrompu", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Erreur lors du calcul du mot de passe", cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -26,6 +26,8 @@ public class PasswordService {
     private final UserRepository userRepository;
     private final PasswordResetTokenRepository tokenRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SecurityVersionService securityVersionService;
+    private final UserDetailsCache userDetailsCache;
     
     /**
      * Vérifie si le mot de passe actuel est correct pour un utilisateur donné
@@ -47,7 +49,11 @@ public class PasswordService {
         if (userOpt.isPresent()) {
             UserEntity user = userOpt.get();
             user.setPassword(passwordEncoder.encode(newPassword));
+            // Révocation des tokens déjà émis pour cet utilisateur
+            user.setSecurityVersion(user.getSecurityVersion() + 1);
             userRepository.save(user);
+            securityVersionService.invalidate(username);
+            userDetailsCache.evict(username);
             logger.info("Mot de passe modifié avec succès pour l'utilisateur: {}", username);
         } else {
             logger.error("Utilisateur non trouvé lors de la modification du mot de passe: {}", username);
@@ -0,0 +1,92 @@
+package com.solutionrh.security.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.solutionrh.security.repository.UserRepository;
+
+/**
+ * Table en mémoire des versions de sécurité des utilisateurs.
+ * Permet de révoquer les tokens émis (changement de mot de passe, désactivation...)
+ * sans recharger l'utilisateur à chaque requête : la base n'est consultée qu'au premier accès,
+ * lorsqu'un token porte une version plus récente que celle connue, ou après expiration de l'entrée.
+ */
+@Service
+public class SecurityVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityVersionService.class);
+
+    private final UserRepository userRepository;
+    private final ConcurrentHashMap<String, VersionEntry> versions = new ConcurrentHashMap<>();
+
+    // Durée de validité d'une entrée, pour prendre en compte les changements faits par les autres instances
+    @Value("${jwt.security-version.refresh-ms:60000}")
+    private long refreshMillis;
+
+    public SecurityVersionService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Retourne la version de sécurité courante d'un utilisateur (0 si inconnu)
+     */
+    public int getCurrentVersion(String username) {
+        long now = System.currentTimeMillis();
+        VersionEntry entry = versions.get(username);
+        if (entry != null && now - entry.loadedAt < refreshMillis) {
+            return entry.version;
+        }
+        return reload(username, now);
+    }
+
+    /**
+     * Vérifie que la version portée par un token correspond à la version courante de l'utilisateur.
+     * Une version de token plus récente que la version connue provoque un rechargement depuis la base.
+     */
+    public boolean isCurrent(String username, int tokenVersion) {
+        int current = getCurrentVersion(username);
+        if (tokenVersion > current) {
+            current = reload(username, System.currentTimeMillis());
+        }
+        return tokenVersion == current;
+    }
+
+    /**
+     * Retire l'utilisateur de la table ; si une transaction est en cours, après son commit.
+     */
+    public void invalidate(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.remove(username);
+                }
+            });
+        } else {
+            versions.remove(username);
+        }
+    }
+
+    private int reload(String username, long now) {
+        int version = userRepository.findSecurityVersionByUsername(username).orElse(0);
+        versions.put(username, new VersionEntry(version, now));
+        logger.debug("Version de sécurité chargée pour {}: {}", username, version);
+        return version;
+    }
+
+    private static final class VersionEntry {
+        private final int version;
+        private final long loadedAt;
+
+        private VersionEntry(int version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.solutionrh.security.service;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Cache borné (taille + durée de vie) des principaux chargés par {@link CustomUserDetailsService}.
+ * Seule une version allégée du principal est conservée (email, hash du mot de passe, rôles) ;
+ * une nouvelle instance de {@link UserDetails} est construite à chaque lecture car Spring Security
+ * efface le mot de passe du principal après authentification.
+ * Les compteurs de succès, d'échecs et d'évictions sont exposés via Micrometer.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private final ConcurrentHashMap<String, CachedPrincipal> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Value("${security.user-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${security.user-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    /**
+     * Retourne une copie du principal en cache, ou null s'il est absent ou expiré
+     */
+    public UserDetails get(String username) {
+        CachedPrincipal cached = entries.get(username);
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        if (cached.expiresAt <= System.currentTimeMillis()) {
+            if (entries.remove(username, cached)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached.toUserDetails();
+    }
+
+    /**
+     * Met en cache la version allégée d'un principal
+     */
+    public void put(UserDetails userDetails) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evictForSpace();
+        }
+        entries.put(userDetails.getUsername(), new CachedPrincipal(userDetails,
+                System.currentTimeMillis() + ttlMillis));
+    }
+
+    /**
+     * Retire un utilisateur du cache immédiatement, puis de nouveau après le commit de la transaction
+     * en cours (pour ne pas conserver une valeur rechargée avant la validation des modifications).
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        remove(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Retire plusieurs utilisateurs du cache
+     */
+    public void evictAll(Collection<String> usernames) {
+        usernames.forEach(this::evict);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.user.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Lectures du cache des principaux")
+                .register(registry);
+        FunctionCounter.builder("security.user.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Lectures du cache des principaux")
+                .register(registry);
+        FunctionCounter.builder("security.user.cache.evictions", evictions, LongAdder::sum)
+                .description("Entrées retirées du cache des principaux")
+                .register(registry);
+        Gauge.builder("security.user.cache.size", entries, ConcurrentHashMap::size)
+                .description("Nombre de principaux en cache")
+                .register(registry);
+    }
+
+    private void remove(String username) {
+        if (entries.remove(username) != null) {
+            evictions.increment();
+        }
+    }
+
+    // Supprime d'abord les entrées expirées, puis une fraction arbitraire si le cache reste plein
+    private void evictForSpace() {
+        long now = System.currentTimeMillis();
+        Iterator<CachedPrincipal> expired = entries.values().iterator();
+        while (expired.hasNext()) {
+            if (expired.next().expiresAt <= now) {
+                expired.remove();
+                evictions.increment();
+            }
+        }
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toRemove > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+            toRemove--;
+        }
+        logger.debug("Cache des principaux plein, taille après éviction: {}", entries.size());
+    }
+
+    private static final class CachedPrincipal {
+        private final String username;
+        private final String password;
+        private final List<GrantedAuthority> authorities;
+        private final boolean enabled;
+        private final boolean accountNonExpired;
+        private final boolean credentialsNonExpired;
+        private final boolean accountNonLocked;
+        private final long expiresAt;
+
+        private CachedPrincipal(UserDetails userDetails, long expiresAt) {
+            this.username = userDetails.getUsername();
+            this.password = userDetails.getPassword();
+            this.authorities = List.copyOf(userDetails.getAuthorities());
+            this.enabled = userDetails.isEnabled();
+            this.accountNonExpired = userDetails.isAccountNonExpired();
+            this.credentialsNonExpired = userDetails.isCredentialsNonExpired();
+            this.accountNonLocked = userDetails.isAccountNonLocked();
+            this.expiresAt = expiresAt;
+        }
+
+        private UserDetails toUserDetails() {
+            return new User(username, password, enabled, accountNonExpired,
+                    credentialsNonExpired, accountNonLocked, authorities);
+        }
+    }
+}
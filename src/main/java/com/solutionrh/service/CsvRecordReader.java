@@ -0,0 +1,102 @@
+package com.solutionrh.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture d'un fichier CSV enregistrement par enregistrement (RFC 4180) : champs entre guillemets,
+ * guillemets doublés, sauts de ligne dans les champs. Le séparateur est détecté sur la ligne d'en-tête
+ * (';' ou ',').
+ */
+public final class CsvRecordReader {
+
+    private final Reader reader;
+    private char separator;
+    private int pending = -2; // caractère lu d'avance (-2 : aucun)
+
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Lit la ligne d'en-tête et détecte le séparateur
+     *
+     * @return les noms de colonnes, ou null si le fichier est vide
+     */
+    public List<String> readHeader() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        if (c == -1 && line.length() == 0) {
+            return null;
+        }
+        String header = line.toString();
+        if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+        separator = header.indexOf(';') >= 0 || header.indexOf(',') < 0 ? ';' : ',';
+        List<String> columns = new ArrayList<>();
+        for (String column : header.split(String.valueOf(separator), -1)) {
+            columns.add(column.trim().replace("\"", ""));
+        }
+        return columns;
+    }
+
+    /**
+     * Lit l'enregistrement suivant
+     *
+     * @return les champs, ou null en fin de fichier
+     */
+    public List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        pending = next;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
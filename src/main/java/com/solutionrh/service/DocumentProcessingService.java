@@ -0,0 +1,270 @@
+package com.solutionrh.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.solutionrh.dao.DocumentProcessingRepository;
+import com.solutionrh.model.DocumentProcessing;
+import com.solutionrh.service.storage.StorageBackend;
+import com.solutionrh.service.storage.StoredObject;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Traitement en arrière-plan des documents d'inscription, déclenché une fois l'inscription validée.
+ * Un enregistrement PENDING est créé dans la transaction d'inscription ; le traitement est ensuite soumis
+ * à un pool dédié à file bornée. Si la file est pleine, la demande n'est pas mise en attente dans le thread
+ * de la requête : l'enregistrement reste PENDING et est repris périodiquement, au rythme de la place libre.
+ */
+@Service
+public class DocumentProcessingService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentProcessingService.class);
+
+    // Fichiers dérivés : derived/<id employeur>/<catégorie>-thumbnail.jpg et <catégorie>-optimized.pdf
+    public static final String DERIVED_DIR = "derived";
+
+    private static final int MESSAGE_MAX_LENGTH = 255;
+
+    private final DocumentProcessingRepository documentProcessingRepository;
+    private final DocumentProcessor documentProcessor;
+    private final FileStorageService fileStorageService;
+    private final StorageBackend storageBackend;
+
+    private final ThreadPoolExecutor executor;
+    private final int maxAttempts;
+    private final long recoveryDelayMillis;
+
+    // Traitements soumis et non terminés, pour ne pas soumettre deux fois le même document
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Counter rejections;
+
+    public DocumentProcessingService(DocumentProcessingRepository documentProcessingRepository,
+                                     DocumentProcessor documentProcessor,
+                                     FileStorageService fileStorageService,
+                                     StorageBackend storageBackend,
+                                     @Value("${document-processing.threads:2}") int threads,
+                                     @Value("${document-processing.queue-capacity:100}") int queueCapacity,
+                                     @Value("${document-processing.max-attempts:3}") int maxAttempts,
+                                     @Value("${document-processing.recovery-delay-ms:30000}") long recoveryDelayMillis,
+                                     MeterRegistry meterRegistry) {
+        this.documentProcessingRepository = documentProcessingRepository;
+        this.documentProcessor = documentProcessor;
+        this.fileStorageService = fileStorageService;
+        this.storageBackend = storageBackend;
+        this.maxAttempts = maxAttempts;
+        this.recoveryDelayMillis = recoveryDelayMillis;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "document-processing-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    // Le rendu des miniatures ne doit pas prendre le pas sur le traitement des requêtes
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejections = Counter.builder("documents.processing.rejections")
+                .description("Traitements différés car la file de traitement des documents est pleine")
+                .register(meterRegistry);
+        Gauge.builder("documents.processing.queue.size", executor, e -> e.getQueue().size())
+                .description("Nombre de documents en attente de traitement")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Crée l'enregistrement de traitement d'un document, dans la transaction de l'appelant
+     *
+     * @param employerId l'identifiant de l'employeur
+     * @param category la catégorie du document (ninea, rccm...)
+     * @param documentPath le chemin relatif du document, null si aucun document
+     * @return l'enregistrement créé, ou null si aucun document
+     */
+    public DocumentProcessing prepare(Long employerId, String category, String documentPath) {
+        if (documentPath == null) {
+            return null;
+        }
+        DocumentProcessing processing = new DocumentProcessing();
+        processing.setEmployerId(employerId);
+        processing.setCategory(category);
+        processing.setDocumentPath(documentPath);
+        processing.setStatus(DocumentProcessing.Status.PENDING);
+        processing.setCreatedAt(LocalDateTime.now());
+        return documentProcessingRepository.save(processing);
+    }
+
+    /**
+     * Supprime les traitements d'un employeur (compensation d'une inscription annulée), dans la transaction
+     * de l'appelant
+     */
+    public void deleteFor(Long employerId) {
+        documentProcessingRepository.deleteByEmployerId(employerId);
+    }
+
+    /**
+     * Soumet un traitement au pool, sans attendre. Si la file est pleine, le traitement reste en attente
+     * et sera repris par {@link #resumePending()}.
+     *
+     * @param processingId l'identifiant de l'enregistrement de traitement
+     */
+    public void submit(Long processingId) {
+        if (processingId == null || !inFlight.add(processingId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> run(processingId));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(processingId);
+            rejections.increment();
+            logger.debug("File de traitement pleine, document {} différé", processingId);
+        }
+    }
+
+    /**
+     * Reprend les traitements restés en attente, dans la limite de la place libre dans la file
+     */
+    @Scheduled(initialDelayString = "${document-processing.recovery-interval-ms:60000}",
+            fixedDelayString = "${document-processing.recovery-interval-ms:60000}")
+    public void resumePending() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        List<Long> pending = documentProcessingRepository.findIdsByStatusCreatedBefore(DocumentProcessing.Status.PENDING,
+                LocalDateTime.now().minus(Duration.ofMillis(recoveryDelayMillis)), PageRequest.of(0, capacity));
+        if (!pending.isEmpty()) {
+            logger.info("Reprise de {} traitement(s) de documents en attente", pending.size());
+            pending.forEach(this::submit);
+        }
+    }
+
+    private void run(Long processingId) {
+        try {
+            documentProcessingRepository.findById(processingId)
+                    .filter(processing -> processing.getStatus() == DocumentProcessing.Status.PENDING)
+                    .ifPresent(this::process);
+        } catch (RuntimeException e) {
+            logger.error("Erreur lors du traitement du document {}: {}", processingId, e.getMessage(), e);
+        } finally {
+            inFlight.remove(processingId);
+        }
+    }
+
+    private void process(DocumentProcessing processing) {
+        processing.setAttempts(processing.getAttempts() + 1);
+        Path copy = null;
+        DocumentProcessor.Result result = null;
+        try {
+            Path workDirectory = fileStorageService.stagingDirectory();
+            Optional<Path> localFile = storageBackend.localPath(processing.getDocumentPath()).filter(Files::exists);
+            Path file;
+            if (localFile.isPresent()) {
+                file = localFile.get();
+            } else {
+                // Stockage objet : copie temporaire locale, le rendu PDF a besoin d'un accès aléatoire
+                copy = download(processing.getDocumentPath(), workDirectory);
+                file = copy;
+            }
+            processing.setOriginalSize(Files.size(file));
+
+            String mediaType = documentProcessor.detectMediaType(file);
+            processing.setMediaType(mediaType);
+            if (mediaType == null) {
+                processing.setStatus(DocumentProcessing.Status.REJECTED);
+                processing.setMessage("Type de fichier non accepté (PDF, PNG ou JPEG attendu)");
+            } else {
+                result = documentProcessor.process(file, mediaType, workDirectory);
+                String prefix = DERIVED_DIR + "/" + processing.getEmployerId() + "/" + processing.getCategory();
+                String thumbnailPath = prefix + "-thumbnail.jpg";
+                storageBackend.put(thumbnailPath, result.getThumbnail());
+                processing.setThumbnailPath(thumbnailPath);
+                if (result.getOptimized() != null) {
+                    String optimizedPath = prefix + "-optimized.pdf";
+                    long optimizedSize = Files.size(result.getOptimized());
+                    storageBackend.put(optimizedPath, result.getOptimized());
+                    processing.setOptimizedPath(optimizedPath);
+                    processing.setOptimizedSize(optimizedSize);
+                }
+                processing.setPageCount(result.getPageCount());
+                processing.setStatus(DocumentProcessing.Status.VALID);
+                processing.setMessage(null);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Échec du traitement du document {} (tentative {}): {}", processing.getDocumentPath(),
+                    processing.getAttempts(), e.getMessage());
+            processing.setMessage(truncate(e.getMessage()));
+            if (processing.getAttempts() >= maxAttempts) {
+                processing.setStatus(DocumentProcessing.Status.FAILED);
+            }
+        } finally {
+            deleteQuietly(copy);
+            if (result != null) {
+                deleteQuietly(result.getThumbnail());
+                deleteQuietly(result.getOptimized());
+            }
+        }
+        processing.setProcessedAt(LocalDateTime.now());
+        documentProcessingRepository.save(processing);
+    }
+
+    private Path download(String key, Path workDirectory) throws IOException {
+        StoredObject object = storageBackend.stat(key)
+                .orElseThrow(() -> new IOException("Document introuvable: " + key));
+        Path copy = Files.createTempFile(workDirectory, "processing-", ".tmp");
+        try (InputStream in = storageBackend.get(key, 0, object.getSize())) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(copy);
+            throw e;
+        }
+        return copy;
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > MESSAGE_MAX_LENGTH ? message.substring(0, MESSAGE_MAX_LENGTH) : message;
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Impossible de supprimer le fichier temporaire {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
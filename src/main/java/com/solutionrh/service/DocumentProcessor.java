@@ -0,0 +1,223 @@
+package com.solutionrh.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Traitement d'un document d'inscription sur disque : détection du type par les octets de signature,
+ * recompression des PDF (flux d'objets compressés) et miniature JPEG de la première page.
+ * Les PDF sont ouverts avec un cache sur fichier temporaire et les images sont lues sous-échantillonnées :
+ * la mémoire utilisée ne dépend pas de la taille du document.
+ */
+@Component
+public class DocumentProcessor {
+
+    public static final String PDF = "application/pdf";
+    public static final String PNG = "image/png";
+    public static final String JPEG = "image/jpeg";
+
+    private static final byte[] PDF_SIGNATURE = { '%', 'P', 'D', 'F', '-' };
+    private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final byte[] JPEG_SIGNATURE = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF };
+
+    // Le PDF est accepté si sa signature apparaît dans le premier kilo-octet (tolérance de la norme)
+    private static final int SIGNATURE_WINDOW = 1024;
+
+    @Value("${document-processing.thumbnail.width:240}")
+    private int thumbnailWidth;
+
+    @Value("${document-processing.thumbnail.quality:0.7}")
+    private float thumbnailQuality;
+
+    // Gain minimal (en fraction de la taille d'origine) pour conserver la version recompressée
+    @Value("${document-processing.optimize.min-savings:0.1}")
+    private double minSavings;
+
+    /**
+     * Détecte le type d'un document d'après ses premiers octets
+     *
+     * @return PDF, PNG ou JPEG, ou null si le type n'est pas accepté
+     */
+    public String detectMediaType(Path file) throws IOException {
+        byte[] head = new byte[SIGNATURE_WINDOW];
+        int length;
+        try (InputStream in = Files.newInputStream(file)) {
+            length = in.readNBytes(head, 0, head.length);
+        }
+        if (startsWith(head, length, PNG_SIGNATURE)) {
+            return PNG;
+        }
+        if (startsWith(head, length, JPEG_SIGNATURE)) {
+            return JPEG;
+        }
+        for (int i = 0; i + PDF_SIGNATURE.length <= length; i++) {
+            if (Arrays.equals(head, i, i + PDF_SIGNATURE.length, PDF_SIGNATURE, 0, PDF_SIGNATURE.length)) {
+                return PDF;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Traite un document au type déjà détecté ; la miniature et la version optimisée sont écrites
+     * dans le répertoire de travail et appartiennent à l'appelant
+     *
+     * @param file le document
+     * @param mediaType le type détecté (voir {@link #detectMediaType})
+     * @param workDirectory le répertoire des fichiers produits
+     * @return le résultat du traitement
+     */
+    public Result process(Path file, String mediaType, Path workDirectory) throws IOException {
+        Path thumbnail = Files.createTempFile(workDirectory, "thumbnail-", ".jpg");
+        try {
+            if (PDF.equals(mediaType)) {
+                return processPdf(file, thumbnail, workDirectory);
+            }
+            writeJpeg(scale(readSubsampled(file)), thumbnail);
+            return new Result(1, thumbnail, null);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(thumbnail);
+            throw e;
+        }
+    }
+
+    private Result processPdf(Path file, Path thumbnail, Path workDirectory) throws IOException {
+        try (PDDocument document = Loader.loadPDF(file.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            int pageCount = document.getNumberOfPages();
+            if (pageCount == 0) {
+                throw new IOException("Le PDF ne contient aucune page");
+            }
+
+            // Rendu de la première page à la résolution juste suffisante pour la largeur de la miniature
+            PDPage page = document.getPage(0);
+            float pageWidth = page.getCropBox().getWidth();
+            float dpi = pageWidth > 0 ? Math.min(72f, thumbnailWidth * 72f / pageWidth) : 72f;
+            BufferedImage image = new PDFRenderer(document).renderImageWithDPI(0, dpi, ImageType.RGB);
+            writeJpeg(scale(image), thumbnail);
+
+            // Un PDF chiffré ou signé ne peut pas être réécrit sans perdre sa protection ou sa signature
+            if (document.isEncrypted() || !document.getSignatureDictionaries().isEmpty()) {
+                return new Result(pageCount, thumbnail, null);
+            }
+            Path optimized = Files.createTempFile(workDirectory, "optimized-", ".pdf");
+            try {
+                document.save(optimized.toFile(), CompressParameters.DEFAULT_COMPRESSION);
+                if (Files.size(optimized) > Files.size(file) * (1 - minSavings)) {
+                    Files.deleteIfExists(optimized);
+                    optimized = null;
+                }
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(optimized);
+                throw e;
+            }
+            return new Result(pageCount, thumbnail, optimized);
+        }
+    }
+
+    // Lecture d'une image sous-échantillonnée : seule une ligne sur n est décodée
+    private BufferedImage readSubsampled(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Image illisible");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int step = Math.max(1, width / thumbnailWidth);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source) {
+        int width = Math.min(thumbnailWidth, source.getWidth());
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            // Fond blanc pour les images avec transparence (JPEG n'a pas de canal alpha)
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(thumbnailQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static boolean startsWith(byte[] data, int length, byte[] prefix) {
+        return length >= prefix.length && Arrays.equals(data, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * Fichiers produits par le traitement d'un document
+     */
+    public static class Result {
+        private final int pageCount;
+        private final Path thumbnail;
+        private final Path optimized; // null si la recompression n'apporte pas de gain suffisant
+
+        public Result(int pageCount, Path thumbnail, Path optimized) {
+            this.pageCount = pageCount;
+            this.thumbnail = thumbnail;
+            this.optimized = optimized;
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        public Path getThumbnail() {
+            return thumbnail;
+        }
+
+        public Path getOptimized() {
+            return optimized;
+        }
+    }
+}
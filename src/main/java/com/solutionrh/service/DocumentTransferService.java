@@ -0,0 +1,254 @@
+package com.solutionrh.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import com.solutionrh.exception.ResourceNotFoundException;
+import com.solutionrh.service.storage.StorageBackend;
+import com.solutionrh.service.storage.StoredObject;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Envoi de documents stockés sans les charger en mémoire : pour le stockage local, sendfile de Tomcat lorsqu'il
+ * est disponible, sinon FileChannel.transferTo vers la sortie de la réponse ; pour un stockage objet, copie en
+ * flux de la plage demandée. Gère les requêtes partielles (Range, If-Range)
+ * et la revalidation (If-None-Match) à partir d'un ETag fort calculé sur le contenu du fichier.
+ */
+@Service
+public class DocumentTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentTransferService.class);
+
+    // Attributs de requête de Tomcat pour l'envoi par sendfile
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int SHA256_HEX_LENGTH = 64;
+
+    private static final String NOSNIFF_HEADER = "X-Content-Type-Options";
+    private static final Set<String> INLINE_MEDIA_TYPES = Set.of(DocumentProcessor.PDF, DocumentProcessor.PNG,
+            DocumentProcessor.JPEG);
+
+    private final FileStorageService fileStorageService;
+    private final StorageBackend storageBackend;
+
+    @Value("${file.checksum-cache.max-size:10000}")
+    private int checksumCacheMaxSize;
+
+    // Empreintes déjà calculées, invalidées si la taille ou la date de modification du fichier change
+    private final ConcurrentHashMap<Path, Checksum> checksums = new ConcurrentHashMap<>();
+
+    public DocumentTransferService(FileStorageService fileStorageService, StorageBackend storageBackend) {
+        this.fileStorageService = fileStorageService;
+        this.storageBackend = storageBackend;
+    }
+
+    /**
+     * Écrit le document (ou la plage demandée) dans la réponse
+     *
+     * @param key la clé du document dans le stockage (chemin relatif)
+     * @param mediaType le type détecté d'après le contenu (voir {@link DocumentProcessor#detectMediaType}),
+     *        null si le document n'a pas été reconnu : il est alors envoyé en pièce jointe, sans type précis
+     * @param request la requête (en-têtes Range, If-Range, If-None-Match)
+     * @param response la réponse
+     */
+    public void send(String key, String mediaType, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        StoredObject object = storageBackend.stat(key)
+                .orElseThrow(() -> new ResourceNotFoundException("Document introuvable"));
+        Optional<Path> localFile = storageBackend.localPath(key);
+        long length = object.getSize();
+        String etag = etagOf(key, object, localFile);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=0, must-revalidate");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Le navigateur ne doit jamais deviner le type (HTML ou SVG déposé sous une autre extension)
+        response.setHeader(NOSNIFF_HEADER, "nosniff");
+
+        if (matchesIfNoneMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        // Le type vient du contenu détecté, jamais de l'extension fournie par le client : seuls les PDF
+        // et images reconnus sont affichés dans le navigateur, tout le reste est téléchargé
+        String filename = key.substring(key.lastIndexOf('/') + 1);
+        boolean displayable = INLINE_MEDIA_TYPES.contains(mediaType);
+        response.setContentType(displayable ? mediaType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, (displayable ? ContentDisposition.inline()
+                : ContentDisposition.attachment()).filename(filename).build().toString());
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count == 0) {
+            return;
+        }
+
+        if (localFile.isEmpty()) {
+            // Stockage objet : la plage est lue en flux depuis le stockage
+            try (InputStream in = storageBackend.get(key, start, count)) {
+                StreamUtils.copy(in, response.getOutputStream());
+            }
+            return;
+        }
+        Path file = localFile.get();
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Le connecteur envoie le fichier directement depuis le noyau après le retour du contrôleur
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().normalize().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    /**
+     * Analyse un en-tête Range à une seule plage
+     *
+     * @return {début, fin} inclusifs, un tableau vide pour ignorer l'en-tête (plages multiples ou syntaxe
+     *         inconnue : le fichier entier est envoyé), ou null si la plage n'est pas satisfiable
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffixe : les N derniers octets
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private boolean matchesIfNoneMatch(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String etagOf(String key, StoredObject object, Optional<Path> localFile) throws IOException {
+        // Blob adressé par contenu : l'empreinte est déjà dans le nom du fichier
+        String filename = key.substring(key.lastIndexOf('/') + 1);
+        if (filename.length() >= SHA256_HEX_LENGTH && filename.substring(0, SHA256_HEX_LENGTH).matches("[0-9a-f]+")) {
+            return "\"" + filename.substring(0, SHA256_HEX_LENGTH) + "\"";
+        }
+        if (localFile.isEmpty()) {
+            // Stockage objet : empreinte fournie par le stockage
+            return "\"" + (object.getEtag() != null ? object.getEtag()
+                    : object.getSize() + "-" + object.getLastModified()) + "\"";
+        }
+        Path file = localFile.get();
+        long size = object.getSize();
+        long modified = object.getLastModified();
+        Checksum cached = checksums.get(file);
+        if (cached != null && cached.size == size && cached.modified == modified) {
+            return cached.etag;
+        }
+        String etag = "\"" + fileStorageService.sha256(file) + "\"";
+        logger.debug("Empreinte calculée pour {}", file);
+        if (checksums.size() >= checksumCacheMaxSize) {
+            checksums.clear();
+        }
+        checksums.put(file, new Checksum(size, modified, etag));
+        return etag;
+    }
+
+    private static final class Checksum {
+        private final long size;
+        private final long modified;
+        private final String etag;
+
+        private Checksum(long size, long modified, String etag) {
+            this.size = size;
+            this.modified = modified;
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.solutionrh.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.dto.EmployerExportDto;
+
+/**
+ * Export de tous les employeurs en NDJSON (un objet JSON par ligne) ou en CSV.
+ * Les lignes sont lues par un curseur côté serveur et écrites au fil de la lecture : aucune liste n'est
+ * constituée et aucune entité n'est chargée, la mémoire utilisée ne dépend pas du nombre d'employeurs.
+ */
+@Service
+public class EmployerExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployerExportService.class);
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CSV_HEADER = "id;companyName;ninea;activitySector;size;address;addressComplement;"
+            + "department;country;website;firstName;lastName;professionalEmail;professionalPhone;"
+            + "professionalPhoneFixed;function;accountStatus;statusChangeReason;statusChangeDate";
+
+    // Premiers caractères qu'un tableur interprète comme le début d'une formule
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+    // Nombre signé (téléphone au format international notamment) : affiché tel quel, jamais évalué comme formule
+    private static final Pattern SIGNED_NUMBER = Pattern.compile("[+-][0-9]+([.,][0-9]+)?");
+
+    private final EmployerRepository employerRepository;
+    private final ObjectWriter rowWriter;
+
+    public EmployerExportService(EmployerRepository employerRepository, ObjectMapper objectMapper) {
+        this.employerRepository = employerRepository;
+        // Le flux de sortie appartient à l'appelant : Jackson ne doit pas le fermer après chaque ligne
+        this.rowWriter = objectMapper.writerFor(EmployerExportDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Écrit l'export dans le flux, sans le fermer
+     *
+     * @param format NDJSON ou CSV
+     * @param out le flux de sortie
+     * @return le nombre d'employeurs exportés
+     */
+    @Transactional(readOnly = true)
+    public long export(String format, OutputStream out) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        boolean csv = CSV.equals(format);
+        if (csv) {
+            // BOM : ouverture correcte des accents dans les tableurs
+            writer.write('\uFEFF');
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+        try (Stream<EmployerExportDto> rows = employerRepository.streamExportRows()) {
+            for (EmployerExportDto row : (Iterable<EmployerExportDto>) rows::iterator) {
+                if (csv) {
+                    writeCsv(writer, row);
+                } else {
+                    rowWriter.writeValue(writer, row);
+                    writer.write('\n');
+                }
+                count++;
+            }
+        }
+        writer.flush();
+        logger.info("Export {} de {} employeur(s) en {} ms", format, count, System.currentTimeMillis() - startedAt);
+        return count;
+    }
+
+    private void writeCsv(Writer writer, EmployerExportDto row) throws IOException {
+        Object[] values = { row.getId(), row.getCompanyName(), row.getNinea(), row.getActivitySector(), row.getSize(),
+                row.getAddress(), row.getAddressComplement(), row.getDepartment(), row.getCountry(), row.getWebsite(),
+                row.getFirstName(), row.getLastName(), row.getProfessionalEmail(), row.getProfessionalPhone(),
+                row.getProfessionalPhoneFixed(), row.getFunction(), row.getAccountStatus(), row.getStatusChangeReason(),
+                row.getStatusChangeDate() };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(';');
+            }
+            if (values[i] != null) {
+                writeCsvValue(writer, values[i].toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // Valeur entre guillemets si elle contient un séparateur, un guillemet ou un saut de ligne
+    private void writeCsvValue(Writer writer, String value) throws IOException {
+        value = neutralizeFormula(value);
+        boolean quoted = value.indexOf(';') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quoted) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Préfixe d'une apostrophe une valeur qu'un tableur évaluerait comme formule (injection de formule).
+     * Les nombres signés, comme les téléphones +221..., ne sont pas modifiés.
+     */
+    static String neutralizeFormula(String value) {
+        if (value.isEmpty() || FORMULA_PREFIXES.indexOf(value.charAt(0)) < 0 || SIGNED_NUMBER.matcher(value).matches()) {
+            return value;
+        }
+        return "'" + value;
+    }
+
+    /**
+     * Retire l'apostrophe ajoutée par {@link #neutralizeFormula(String)} (relecture d'un export par l'import)
+     */
+    static String restoreFormula(String value) {
+        if (value.length() > 1 && value.charAt(0) == '\'' && FORMULA_PREFIXES.indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,585 @@
+package com.solutionrh.service;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.exception.ResourceNotFoundException;
+import com.solutionrh.exception.ServiceOverloadedException;
+import com.solutionrh.model.Employer;
+import com.solutionrh.security.model.Role;
+import com.solutionrh.security.model.UserEntity;
+import com.solutionrh.security.repository.RoleRepository;
+import com.solutionrh.security.repository.UserRepository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Import en masse d'employeurs depuis un fichier CSV (mêmes colonnes que l'export), exécuté en tâche de fond.
+ * <p>
+ * Le fichier est lu par lots. Pour chaque lot :
+ * <ol>
+ * <li>les lignes sont converties et validées en parallèle, avec les contraintes de l'entité {@link Employer} ;</li>
+ * <li>les doublons sont recherchés dans le fichier, puis en base par une requête IN sur les emails
+ * et une sur les NINEA ;</li>
+ * <li>les employeurs et leurs comptes utilisateur sont insérés dans une transaction par lot
+ * (insertions groupées JDBC) ; en cas de conflit concurrent, le lot est repris ligne par ligne.</li>
+ * </ol>
+ * Les comptes importés sont en attente d'activation, avec un mot de passe inutilisable : l'employeur
+ * le définit par la procédure de réinitialisation.
+ */
+@Service
+public class EmployerImportService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployerImportService.class);
+
+    public static final String IMPORT_FILE_PREFIX = "import-";
+
+    private final EmployerRepository employerRepository;
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final FileStorageService fileStorageService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolExecutor jobExecutor;
+    private final ForkJoinPool validationPool;
+
+    @Value("${imports.batch-size:500}")
+    private int batchSize;
+
+    @Value("${imports.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${imports.retention-ms:86400000}")
+    private long retentionMillis;
+
+    private final ConcurrentHashMap<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public EmployerImportService(EmployerRepository employerRepository,
+                                 UserRepository userRepository,
+                                 RoleRepository roleRepository,
+                                 PasswordEncoder passwordEncoder,
+                                 FileStorageService fileStorageService,
+                                 Validator validator,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${imports.max-queued-jobs:4}") int maxQueuedJobs,
+                                 @Value("${imports.validation-threads:0}") int validationThreads) {
+        this.employerRepository = employerRepository;
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.fileStorageService = fileStorageService;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // Un import à la fois : les écritures par lots ne se concurrencent pas entre elles
+        this.jobExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueuedJobs),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "employer-import");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.validationPool = new ForkJoinPool(
+                validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Enregistre le fichier et planifie son import
+     *
+     * @param file le fichier CSV
+     * @return la tâche d'import créée
+     * @throws ServiceOverloadedException si trop d'imports sont déjà en attente
+     */
+    public ImportJob submit(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Le fichier d'import est vide");
+        }
+        expireFinishedJobs();
+
+        String id = UUID.randomUUID().toString();
+        Path path = fileStorageService.stagingDirectory().resolve(IMPORT_FILE_PREFIX + id + ".csv");
+        file.transferTo(path.toFile()); // renommage du fichier temporaire multipart (voir FileStorageService)
+        ImportJob job = new ImportJob(id, file.getOriginalFilename(), Files.size(path));
+        jobs.put(id, job);
+        try {
+            jobExecutor.execute(() -> run(job, path));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            Files.deleteIfExists(path);
+            throw new ServiceOverloadedException("Trop d'imports en attente, veuillez réessayer plus tard", 60);
+        }
+        return job;
+    }
+
+    /**
+     * Retourne l'état d'une tâche d'import
+     */
+    public ImportJob get(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import introuvable ou expiré: " + id);
+        }
+        return job;
+    }
+
+    private void run(ImportJob job, Path path) {
+        job.start();
+        logger.info("Import {} démarré ({}, {} octets)", job.id, job.filename, job.fileSize);
+        try (CountingInputStream counting = new CountingInputStream(Files.newInputStream(path), job.bytesRead)) {
+            CsvRecordReader reader = new CsvRecordReader(
+                    new BufferedReader(new InputStreamReader(counting, StandardCharsets.UTF_8)));
+            List<String> header = reader.readHeader();
+            if (header == null) {
+                job.fail("Fichier vide");
+                return;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i), i);
+            }
+            for (String required : List.of("companyName", "ninea", "professionalEmail")) {
+                if (!columns.containsKey(required)) {
+                    job.fail("Colonne obligatoire absente: " + required);
+                    return;
+                }
+            }
+
+            // Mot de passe inutilisable commun aux comptes importés : un seul hachage par import
+            String unusablePassword = passwordEncoder.encode(UUID.randomUUID().toString());
+            Set<String> seenEmails = new HashSet<>();
+            Set<String> seenNineas = new HashSet<>();
+
+            List<CsvRow> batch = new ArrayList<>(batchSize);
+            long rowNumber = 1; // la ligne 1 est l'en-tête
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                rowNumber++;
+                if (record.stream().allMatch(String::isBlank)) {
+                    continue;
+                }
+                batch.add(new CsvRow(rowNumber, record));
+                if (batch.size() == batchSize) {
+                    importBatch(job, batch, columns, unusablePassword, seenEmails, seenNineas);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(job, batch, columns, unusablePassword, seenEmails, seenNineas);
+            }
+            job.complete();
+            logger.info("Import {} terminé : {} ligne(s), {} importée(s), {} rejetée(s)", job.id, job.processedRows.get(),
+                    job.importedRows.get(), job.rejectedRows.get());
+        } catch (Exception e) {
+            logger.error("Échec de l'import {}: {}", job.id, e.getMessage(), e);
+            job.fail("Erreur lors de l'import: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("Impossible de supprimer le fichier d'import {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    private void importBatch(ImportJob job, List<CsvRow> batch, Map<String, Integer> columns, String unusablePassword,
+                             Set<String> seenEmails, Set<String> seenNineas) throws InterruptedException, ExecutionException {
+        // 1. Conversion et validation en parallèle (sans accès à la base)
+        List<RowResult> results = validationPool.submit(() -> batch.parallelStream()
+                .map(row -> toEmployer(row, columns, unusablePassword))
+                .collect(Collectors.toList())).get();
+
+        // 2. Doublons dans le fichier (dans l'ordre des lignes)
+        List<RowResult> valid = new ArrayList<>();
+        for (RowResult result : results) {
+            if (result.employer == null) {
+                continue;
+            }
+            if (!seenEmails.add(key(result.employer.getProfessionalEmail()))) {
+                result.reject("professionalEmail: email en double dans le fichier");
+            } else if (!seenNineas.add(key(result.employer.getNinea()))) {
+                result.reject("ninea: NINEA en double dans le fichier");
+            } else {
+                valid.add(result);
+            }
+        }
+
+        // 3. Doublons en base : une requête IN par clé pour tout le lot
+        if (!valid.isEmpty()) {
+            Set<String> existingEmails = employerRepository.findExistingEmails(valid.stream()
+                    .map(result -> result.employer.getProfessionalEmail()).collect(Collectors.toList()))
+                    .stream().map(EmployerImportService::key).collect(Collectors.toSet());
+            Set<String> existingNineas = employerRepository.findExistingNineas(valid.stream()
+                    .map(result -> result.employer.getNinea()).collect(Collectors.toList()))
+                    .stream().map(EmployerImportService::key).collect(Collectors.toSet());
+            valid.removeIf(result -> {
+                if (existingEmails.contains(key(result.employer.getProfessionalEmail()))) {
+                    result.reject("professionalEmail: cet email est déjà utilisé");
+                    return true;
+                }
+                if (existingNineas.contains(key(result.employer.getNinea()))) {
+                    result.reject("ninea: ce numéro NINEA est déjà utilisé");
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        // 4. Insertions groupées, puis ligne par ligne si une inscription concurrente a créé un doublon
+        if (!valid.isEmpty()) {
+            try {
+                insert(valid, unusablePassword);
+                job.importedRows.addAndGet(valid.size());
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Conflit lors de l'insertion groupée de l'import {}, reprise ligne par ligne", job.id);
+                for (RowResult result : valid) {
+                    result.employer.setId(null);
+                    try {
+                        insert(List.of(result), unusablePassword);
+                        job.importedRows.incrementAndGet();
+                    } catch (DataIntegrityViolationException rowError) {
+                        result.reject("email ou NINEA déjà utilisé");
+                    }
+                }
+            }
+        }
+
+        for (RowResult result : results) {
+            if (!result.errors.isEmpty()) {
+                job.reject(result.rowNumber, result.errors, maxReportedErrors);
+            }
+        }
+        job.processedRows.addAndGet(batch.size());
+    }
+
+    private void insert(List<RowResult> rows, String unusablePassword) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Role employerRole = roleRepository.findByName("EMPLOYER")
+                    .orElseGet(() -> roleRepository.save(new Role("EMPLOYER")));
+            List<UserEntity> users = new ArrayList<>(rows.size());
+            for (RowResult row : rows) {
+                employerRepository.save(row.employer);
+                UserEntity user = new UserEntity(row.employer.getProfessionalEmail(), unusablePassword);
+                user.setRoles(Collections.singletonList(employerRole));
+                users.add(user);
+            }
+            // Un seul flush : employeurs, utilisateurs et rôles partent en insertions groupées
+            userRepository.saveAll(users);
+            userRepository.flush();
+        });
+    }
+
+    private RowResult toEmployer(CsvRow row, Map<String, Integer> columns, String unusablePassword) {
+        RowResult result = new RowResult(row.number);
+        Employer employer = new Employer();
+        employer.setCompanyName(row.value(columns, "companyName"));
+        employer.setNinea(row.value(columns, "ninea"));
+        employer.setActivitySector(parseEnum(Employer.ActivitySector.class, row, columns, "activitySector", result));
+        employer.setSize(parseEnum(Employer.Size.class, row, columns, "size", result));
+        employer.setAddress(row.value(columns, "address"));
+        employer.setAddressComplement(row.value(columns, "addressComplement"));
+        employer.setDepartment(parseEnum(Employer.department.class, row, columns, "department", result));
+        String country = row.value(columns, "country");
+        if (country != null) {
+            employer.setCountry(country);
+        }
+        employer.setWebsite(row.value(columns, "website"));
+        employer.setFirstName(row.value(columns, "firstName"));
+        employer.setLastName(row.value(columns, "lastName"));
+        employer.setProfessionalEmail(row.value(columns, "professionalEmail"));
+        employer.setProfessionalPhone(row.value(columns, "professionalPhone"));
+        employer.setProfessionalPhoneFixed(row.value(columns, "professionalPhoneFixed"));
+        employer.setFunction(row.value(columns, "function"));
+        employer.setPassword(unusablePassword);
+        employer.setAccountStatus(Employer.AccountStatus.PENDING_ACTIVATION);
+        employer.setStatusChangeReason("Import en masse en attente d'activation");
+        employer.setStatusChangeDate(LocalDateTime.now());
+
+        for (ConstraintViolation<Employer> violation : validator.validate(employer)) {
+            String field = violation.getPropertyPath().toString();
+            // Une valeur d'énumération invalide est déjà signalée avec sa valeur
+            if (result.errors.stream().noneMatch(error -> error.startsWith(field + ":"))) {
+                result.errors.add(field + ": " + violation.getMessage());
+            }
+        }
+        if (result.errors.isEmpty()) {
+            result.employer = employer;
+        }
+        return result;
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, CsvRow row, Map<String, Integer> columns, String column,
+                                            RowResult result) {
+        String value = row.value(columns, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            result.errors.add(column + ": valeur inconnue '" + value + "'");
+            return null;
+        }
+    }
+
+    // Clé de comparaison des doublons (MySQL compare sans tenir compte de la casse)
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void expireFinishedJobs() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.finishedAt != null
+                && now - job.finishedAtMillis > retentionMillis);
+    }
+
+    @Override
+    public void destroy() {
+        jobExecutor.shutdownNow();
+        validationPool.shutdownNow();
+    }
+
+    /**
+     * Ligne du fichier (numéro de ligne et champs)
+     */
+    private static final class CsvRow {
+        private final long number;
+        private final List<String> fields;
+
+        private CsvRow(long number, List<String> fields) {
+            this.number = number;
+            this.fields = fields;
+        }
+
+        // Valeur d'une colonne, null si absente ou vide ; l'apostrophe ajoutée par l'export devant une formule est retirée
+        private String value(Map<String, Integer> columns, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = EmployerExportService.restoreFormula(fields.get(index).trim());
+            return StringUtils.hasText(value) ? value : null;
+        }
+    }
+
+    /**
+     * Résultat de la conversion d'une ligne : employeur valide ou erreurs
+     */
+    private static final class RowResult {
+        private final long rowNumber;
+        private final List<String> errors = new ArrayList<>();
+        private Employer employer;
+
+        private RowResult(long rowNumber) {
+            this.rowNumber = rowNumber;
+        }
+
+        private void reject(String error) {
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Flux comptant les octets lus (progression de l'import)
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+
+        private CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count.addAndGet(read);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * État d'une tâche d'import ; les compteurs sont mis à jour par le thread d'import et lus par l'API
+     */
+    public static class ImportJob {
+
+        public enum State {
+            QUEUED, RUNNING, COMPLETED, FAILED
+        }
+
+        private final String id;
+        private final String filename;
+        private final long fileSize;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile State state = State.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedAtMillis;
+        private volatile String message;
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong processedRows = new AtomicLong();
+        private final AtomicLong importedRows = new AtomicLong();
+        private final AtomicLong rejectedRows = new AtomicLong();
+        private final List<RowError> errors = Collections.synchronizedList(new ArrayList<>());
+
+        private ImportJob(String id, String filename, long fileSize) {
+            this.id = id;
+            this.filename = filename;
+            this.fileSize = fileSize;
+        }
+
+        private void start() {
+            startedAt = LocalDateTime.now();
+            state = State.RUNNING;
+        }
+
+        private void complete() {
+            finish(State.COMPLETED, null);
+        }
+
+        private void fail(String message) {
+            finish(State.FAILED, message);
+        }
+
+        private void finish(State finalState, String finalMessage) {
+            message = finalMessage;
+            finishedAtMillis = System.currentTimeMillis();
+            finishedAt = LocalDateTime.now();
+            state = finalState;
+        }
+
+        private void reject(long rowNumber, List<String> rowErrors, int maxReportedErrors) {
+            rejectedRows.incrementAndGet();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(rowNumber, List.copyOf(rowErrors)));
+            }
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        // Progression en pourcentage, d'après les octets lus du fichier
+        public int getProgress() {
+            if (state == State.COMPLETED) {
+                return 100;
+            }
+            return fileSize == 0 ? 0 : (int) Math.min(99, bytesRead.get() * 100 / fileSize);
+        }
+
+        public long getProcessedRows() {
+            return processedRows.get();
+        }
+
+        public long getImportedRows() {
+            return importedRows.get();
+        }
+
+        public long getRejectedRows() {
+            return rejectedRows.get();
+        }
+
+        public List<RowError> getErrors() {
+            synchronized (errors) {
+                return new ArrayList<>(errors);
+            }
+        }
+    }
+
+    /**
+     * Erreurs d'une ligne rejetée
+     */
+    public static class RowError {
+        private final long row;
+        private final List<String> errors;
+
+        private RowError(long row, List<String> errors) {
+            this.row = row;
+            this.errors = errors;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+}
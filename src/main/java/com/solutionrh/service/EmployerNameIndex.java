@@ -0,0 +1,456 @@
+package com.solutionrh.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.dto.EmployerSearchHitDto;
+
+/**
+ * Index en mémoire des noms d'entreprise (trigrammes) et des NINEA (préfixes), pour la recherche
+ * tolérante aux fautes de frappe sans parcours de la table.
+ * <p>
+ * Les noms sont normalisés (minuscules, sans accents, caractères non alphanumériques remplacés par des espaces)
+ * puis découpés en trigrammes ; chaque trigramme est codé sur un alphabet de 37 symboles et désigne directement
+ * sa liste de documents, un tableau d'int extensible. Une requête compte les trigrammes communs par document et
+ * classe les résultats par similarité de Jaccard.
+ * <p>
+ * L'index est chargé au démarrage par pages sur la clé primaire, puis tenu à jour par
+ * {@link EmployerNameIndexListener} après chaque validation de transaction.
+ * <p>
+ * Chaque nœud tient son propre index et ne voit que les modifications faites par ses propres transactions JPA :
+ * les modifications faites sur un autre nœud ou directement en base n'y apparaissent pas. Avec plusieurs nœuds,
+ * un rafraîchissement périodique (employers.name-index.refresh-cron, désactivé par défaut) relit la table et
+ * rapproche l'index : ajouts, modifications et suppressions faits ailleurs apparaissent au plus tard au
+ * rafraîchissement suivant.
+ */
+@Component
+public class EmployerNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployerNameIndex.class);
+
+    private static final int ALPHABET = 37; // espace, a-z, 0-9
+    private static final int TRIGRAM_COUNT = ALPHABET * ALPHABET * ALPHABET;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    // Nombre maximal de trigrammes retenus par texte : les compteurs par document tiennent sur un octet
+    private static final int MAX_TRIGRAMS = 120;
+
+    private final EmployerRepository employerRepository;
+
+    @Value("${employers.name-index.min-score:0.2}")
+    private double minScore;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Listes de documents par trigramme (null tant que le trigramme n'apparaît dans aucun nom)
+    private final IntList[] postings = new IntList[TRIGRAM_COUNT];
+
+    // Documents : un emplacement par employeur, réutilisé après suppression
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final IntList freeSlots = new IntList();
+    private long[] employerIds = new long[1024];
+    private String[] names = new String[1024];
+    private String[] nineas = new String[1024];
+    private int[][] trigrams = new int[1024][];
+    private int slotCount;
+
+    private final NavigableMap<String, Long> nineaIndex = new TreeMap<>();
+
+    // Compteurs de trigrammes communs par document (un octet par document), réutilisés d'une requête à l'autre :
+    // le nombre de tableaux ne dépasse pas le nombre de recherches simultanées
+    private final ConcurrentLinkedQueue<byte[]> overlapBuffers = new ConcurrentLinkedQueue<>();
+
+    // Employeurs modifiés pendant le chargement ou un rafraîchissement : la ligne lue, plus ancienne, est ignorée
+    private final Set<Long> updatedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+    private volatile boolean refreshing;
+
+    public EmployerNameIndex(EmployerRepository employerRepository) {
+        this.employerRepository = employerRepository;
+    }
+
+    /**
+     * Charge l'index depuis la base, par pages de la clé primaire
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long startedAt = System.currentTimeMillis();
+        int count = readAll(null);
+        loaded = true;
+        updatedDuringLoad.clear();
+        logger.info("Index des noms d'employeurs chargé : {} employeur(s) en {} ms", count,
+                System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Relit la table et rapproche l'index des modifications faites hors de ce nœud : les employeurs absents
+     * de la table sont retirés, les noms et NINEA modifiés sont réindexés
+     */
+    @Scheduled(cron = "${employers.name-index.refresh-cron:-}")
+    public void refresh() {
+        if (!loaded) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        refreshing = true;
+        try {
+            Set<Long> seen = new HashSet<>();
+            int count = readAll(seen);
+            int removed = 0;
+            lock.writeLock().lock();
+            try {
+                List<Long> missing = new ArrayList<>();
+                for (Long employerId : slots.keySet()) {
+                    if (!seen.contains(employerId) && !updatedDuringLoad.contains(employerId)) {
+                        missing.add(employerId);
+                    }
+                }
+                for (Long employerId : missing) {
+                    int slot = slots.remove(employerId);
+                    clearSlot(slot);
+                    freeSlots.add(slot);
+                }
+                removed = missing.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.debug("Index des noms d'employeurs rafraîchi : {} employeur(s) relu(s), {} retiré(s) en {} ms",
+                    count, removed, System.currentTimeMillis() - startedAt);
+        } finally {
+            refreshing = false;
+            updatedDuringLoad.clear();
+        }
+    }
+
+    // Lit la table par pages de la clé primaire et indexe les lignes nouvelles ou modifiées
+    private int readAll(Set<Long> seen) {
+        long after = 0;
+        int count = 0;
+        List<Object[]> rows;
+        do {
+            rows = employerRepository.findNameIndexRowsAfter(after, PageRequest.of(0, LOAD_BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    Long id = (Long) row[0];
+                    if (seen != null) {
+                        seen.add(id);
+                    }
+                    if (!updatedDuringLoad.contains(id) && !isIndexed(id, (String) row[1], (String) row[2])) {
+                        putLocked(id, (String) row[1], (String) row[2]);
+                    }
+                    after = id;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            count += rows.size();
+        } while (rows.size() == LOAD_BATCH_SIZE);
+        return count;
+    }
+
+    /**
+     * Ajoute ou remplace un employeur dans l'index
+     */
+    public void put(Long employerId, String companyName, String ninea) {
+        if (!loaded || refreshing) {
+            updatedDuringLoad.add(employerId);
+        }
+        lock.writeLock().lock();
+        try {
+            putLocked(employerId, companyName, ninea);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un employeur de l'index
+     */
+    public void remove(Long employerId) {
+        if (!loaded || refreshing) {
+            updatedDuringLoad.add(employerId);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(employerId);
+            if (slot != null) {
+                clearSlot(slot);
+                freeSlots.add(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les employeurs dont le nom ressemble à la requête, ou dont le NINEA commence par la requête
+     *
+     * @param query le texte recherché
+     * @param limit le nombre maximal de résultats
+     * @return les résultats, du plus pertinent au moins pertinent (NINEA correspondants en tête, score 1)
+     */
+    public List<EmployerSearchHitDto> search(String query, int limit) {
+        String normalized = normalize(query);
+        int[] queryTrigrams = trigramsOf(normalized);
+        String nineaPrefix = query.trim().toUpperCase();
+
+        lock.readLock().lock();
+        try {
+            List<EmployerSearchHitDto> hits = new ArrayList<>(limit);
+            if (!nineaPrefix.isEmpty() && nineaPrefix.indexOf(' ') < 0) {
+                for (Long employerId : nineaIndex.subMap(nineaPrefix, true, nineaPrefix + Character.MAX_VALUE, false).values()) {
+                    if (hits.size() == limit) {
+                        return hits;
+                    }
+                    int slot = slots.get(employerId);
+                    hits.add(new EmployerSearchHitDto(employerId, names[slot], nineas[slot], 1.0));
+                }
+            }
+            if (queryTrigrams.length == 0) {
+                return hits;
+            }
+
+            // Comptage des trigrammes communs, uniquement sur les documents rencontrés
+            byte[] overlaps = overlapBuffers.poll();
+            if (overlaps == null || overlaps.length < slotCount) {
+                overlaps = new byte[employerIds.length];
+            }
+            // Filtrage par préfixe : un score d'au moins minScore exige minOverlap trigrammes communs, donc au moins
+            // un parmi les (n - minOverlap + 1) plus rares. Seules leurs listes créent des candidats ; les listes
+            // plus fréquentes ne font que compléter les compteurs des candidats existants.
+            int[] ordered = Arrays.stream(queryTrigrams).boxed()
+                    .sorted((a, b) -> Integer.compare(postingSize(a), postingSize(b)))
+                    .mapToInt(Integer::intValue).toArray();
+            int minOverlap = Math.max(1, (int) Math.ceil(minScore * ordered.length));
+            int candidateLists = ordered.length - minOverlap + 1;
+            IntList touched = new IntList();
+            for (int t = 0; t < ordered.length; t++) {
+                IntList posting = postings[ordered[t]];
+                if (posting == null) {
+                    continue;
+                }
+                boolean createsCandidates = t < candidateLists;
+                for (int i = 0; i < posting.size; i++) {
+                    int slot = posting.values[i];
+                    if (overlaps[slot] != 0) {
+                        overlaps[slot]++;
+                    } else if (createsCandidates) {
+                        overlaps[slot] = 1;
+                        touched.add(slot);
+                    }
+                }
+            }
+
+            // Meilleurs scores par tas borné
+            PriorityQueue<double[]> best = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+            int remaining = limit - hits.size();
+            for (int i = 0; i < touched.size && remaining > 0; i++) {
+                int slot = touched.values[i];
+                int overlap = overlaps[slot];
+                double score = (double) overlap / (queryTrigrams.length + trigrams[slot].length - overlap);
+                if (score < minScore) {
+                    continue;
+                }
+                if (best.size() < remaining) {
+                    best.add(new double[] { score, slot });
+                } else if (score > best.peek()[0]) {
+                    best.poll();
+                    best.add(new double[] { score, slot });
+                }
+            }
+            // Remise à zéro des seuls compteurs utilisés, pour la requête suivante du même thread
+            for (int i = 0; i < touched.size; i++) {
+                overlaps[touched.values[i]] = 0;
+            }
+            overlapBuffers.offer(overlaps);
+            List<double[]> ranked = new ArrayList<>(best);
+            ranked.sort((a, b) -> Double.compare(b[0], a[0]));
+            for (double[] entry : ranked) {
+                int slot = (int) entry[1];
+                long employerId = employerIds[slot];
+                if (hits.stream().noneMatch(hit -> hit.getId() == employerId)) {
+                    hits.add(new EmployerSearchHitDto(employerId, names[slot], nineas[slot],
+                            Math.round(entry[0] * 1000) / 1000.0));
+                }
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    private int postingSize(int trigram) {
+        IntList posting = postings[trigram];
+        return posting == null ? 0 : posting.size;
+    }
+
+    private boolean isIndexed(Long employerId, String companyName, String ninea) {
+        Integer slot = slots.get(employerId);
+        return slot != null && Objects.equals(names[slot], companyName) && Objects.equals(nineas[slot], ninea);
+    }
+
+    private void putLocked(Long employerId, String companyName, String ninea) {
+        Integer existing = slots.get(employerId);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            clearSlot(slot);
+        } else {
+            slot = freeSlots.size > 0 ? freeSlots.values[--freeSlots.size] : slotCount++;
+            ensureCapacity(slotCount);
+            slots.put(employerId, slot);
+        }
+        int[] codes = trigramsOf(normalize(companyName));
+        employerIds[slot] = employerId;
+        names[slot] = companyName;
+        nineas[slot] = ninea;
+        trigrams[slot] = codes;
+        for (int code : codes) {
+            IntList posting = postings[code];
+            if (posting == null) {
+                posting = new IntList();
+                postings[code] = posting;
+            }
+            posting.add(slot);
+        }
+        if (ninea != null) {
+            nineaIndex.put(ninea.toUpperCase(), employerId);
+        }
+    }
+
+    private void clearSlot(int slot) {
+        int[] codes = trigrams[slot];
+        if (codes != null) {
+            for (int code : codes) {
+                postings[code].remove(slot);
+            }
+        }
+        if (nineas[slot] != null) {
+            nineaIndex.remove(nineas[slot].toUpperCase(), employerIds[slot]);
+        }
+        names[slot] = null;
+        nineas[slot] = null;
+        trigrams[slot] = new int[0];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > employerIds.length) {
+            int length = Math.max(capacity, employerIds.length * 2);
+            employerIds = Arrays.copyOf(employerIds, length);
+            names = Arrays.copyOf(names, length);
+            nineas = Arrays.copyOf(nineas, length);
+            trigrams = Arrays.copyOf(trigrams, length);
+        }
+    }
+
+    /**
+     * Minuscules sans accents, caractères non alphanumériques remplacés par une espace, espaces réduites
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase();
+        StringBuilder normalized = new StringBuilder(stripped.length());
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            boolean alphanumeric = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+            if (alphanumeric) {
+                normalized.append(c);
+            } else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        return normalized.toString().trim();
+    }
+
+    /**
+     * Codes distincts des trigrammes d'un texte normalisé, encadré d'espaces pour que les débuts et fins
+     * de mots comptent
+     */
+    static int[] trigramsOf(String normalized) {
+        if (normalized.isEmpty()) {
+            return new int[0];
+        }
+        String padded = " " + normalized + " ";
+        IntList codes = new IntList();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            int code = (symbolOf(padded.charAt(i)) * ALPHABET + symbolOf(padded.charAt(i + 1))) * ALPHABET
+                    + symbolOf(padded.charAt(i + 2));
+            if (!codes.contains(code)) {
+                codes.add(code);
+            }
+        }
+        return Arrays.copyOf(codes.values, Math.min(codes.size, MAX_TRIGRAMS));
+    }
+
+    private static int symbolOf(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return 1 + c - 'a';
+        }
+        if (c >= '0' && c <= '9') {
+            return 27 + c - '0';
+        }
+        return 0;
+    }
+
+    /**
+     * Liste d'int extensible, sans objets intermédiaires ; l'ordre des éléments n'est pas conservé à la suppression
+     */
+    static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return;
+                }
+            }
+        }
+
+        boolean contains(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
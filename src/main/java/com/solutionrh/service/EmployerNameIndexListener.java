@@ -0,0 +1,59 @@
+package com.solutionrh.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.solutionrh.model.Employer;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA de l'entité Employer : reporte les créations, modifications et suppressions dans
+ * {@link EmployerNameIndex}, une fois la transaction validée (une transaction annulée ne modifie pas l'index).
+ * Seules les transactions de ce nœud sont vues : les autres nœuds sont rattrapés par
+ * {@link EmployerNameIndex#refresh()}.
+ * <p>
+ * Hibernate crée ce listener pendant la construction de l'EntityManagerFactory, dont l'index dépend
+ * (via EmployerRepository) : l'index est donc résolu à la première utilisation et non à la construction.
+ */
+@Component
+public class EmployerNameIndexListener {
+
+    private final ObjectProvider<EmployerNameIndex> employerNameIndex;
+
+    public EmployerNameIndexListener(ObjectProvider<EmployerNameIndex> employerNameIndex) {
+        this.employerNameIndex = employerNameIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void index(Employer employer) {
+        Long id = employer.getId();
+        String companyName = employer.getCompanyName();
+        String ninea = employer.getNinea();
+        afterCommit(() -> employerNameIndex.getObject().put(id, companyName, ninea));
+    }
+
+    @PostRemove
+    public void unindex(Employer employer) {
+        Long id = employer.getId();
+        afterCommit(() -> employerNameIndex.getObject().remove(id));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
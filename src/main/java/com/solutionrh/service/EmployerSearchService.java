@@ -0,0 +1,81 @@
+package com.solutionrh.service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.dto.EmployerFilter;
+import com.solutionrh.dto.EmployerSummaryDto;
+
+/**
+ * Recherche multicritère d'employeurs. Le total, coûteux à calculer sur de grands volumes, n'est fourni
+ * que sur demande et mis en cache par combinaison de critères : il est approximatif pendant la durée de vie
+ * du cache.
+ */
+@Service
+public class EmployerSearchService {
+
+    private final EmployerRepository employerRepository;
+
+    @Value("${employers.search.count-cache.ttl-ms:60000}")
+    private long countCacheTtlMillis;
+
+    @Value("${employers.search.count-cache.max-size:1000}")
+    private int countCacheMaxSize;
+
+    private final ConcurrentHashMap<EmployerFilter, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public EmployerSearchService(EmployerRepository employerRepository) {
+        this.employerRepository = employerRepository;
+    }
+
+    /**
+     * Page d'employeurs correspondant aux critères, après un identifiant
+     */
+    public List<EmployerSummaryDto> search(EmployerFilter filter, long after, int limit) {
+        return employerRepository.search(filter, after, limit);
+    }
+
+    /**
+     * Nombre d'employeurs correspondant aux critères, lu dans le cache s'il a moins de la durée de vie configurée
+     */
+    public long count(EmployerFilter filter) {
+        long now = System.currentTimeMillis();
+        CachedCount cached = counts.get(filter);
+        if (cached != null && now - cached.computedAt < countCacheTtlMillis) {
+            return cached.value;
+        }
+        long value = employerRepository.count(filter);
+        if (counts.size() >= countCacheMaxSize) {
+            counts.clear();
+        }
+        // Copie du filtre : la clé du cache ne doit pas être modifiée par l'appelant
+        EmployerFilter key = new EmployerFilter();
+        key.setActivitySector(filter.getActivitySector());
+        key.setDepartment(filter.getDepartment());
+        key.setSize(filter.getSize());
+        key.setAccountStatus(filter.getAccountStatus());
+        counts.put(key, new CachedCount(value, now));
+        return value;
+    }
+
+    /**
+     * Vide le cache des totaux (après une modification en masse des employeurs)
+     */
+    public void clearCounts() {
+        counts.clear();
+    }
+
+    private static final class CachedCount {
+        private final long value;
+        private final long computedAt;
+
+        private CachedCount(long value, long computedAt) {
+            this.value = value;
+            this.computedAt = computedAt;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.solutionrh.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.solutionrh.dao.AccountStatusChangeRepository;
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.dto.AccountStatusTransitionDto;
+import com.solutionrh.dto.EmployerFilter;
+import com.solutionrh.dto.EmployerSummaryDto;
+import com.solutionrh.model.Employer;
+import com.solutionrh.security.repository.UserRepository;
+import com.solutionrh.security.service.SecurityVersionService;
+import com.solutionrh.security.service.UserDetailsCache;
+
+/**
+ * Changements de statut des comptes employeurs en masse (activation après une campagne de vérification,
+ * désactivation), sans charger les entités.
+ * <p>
+ * Les employeurs sont traités par lots, dans une transaction par lot :
+ * <ol>
+ * <li>verrouillage des lignes du lot dont le statut fait partie des statuts de départ ;</li>
+ * <li>historique écrit par INSERT ... SELECT, avec le statut précédent ;</li>
+ * <li>mise à jour du statut en une instruction UPDATE ;</li>
+ * <li>pour une désactivation, incrément des versions de sécurité (révocation des tokens émis).</li>
+ * </ol>
+ * Les mises à jour en masse ne passent pas par les listeners de l'entité : les principaux concernés
+ * sont retirés des caches d'authentification après le commit de chaque lot.
+ */
+@Service
+public class EmployerStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployerStatusService.class);
+
+    private final EmployerRepository employerRepository;
+    private final AccountStatusChangeRepository accountStatusChangeRepository;
+    private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final SecurityVersionService securityVersionService;
+    private final EmployerSearchService employerSearchService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${employers.status.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${employers.status.max-ids:100000}")
+    private int maxIds;
+
+    public EmployerStatusService(EmployerRepository employerRepository,
+                                 AccountStatusChangeRepository accountStatusChangeRepository,
+                                 UserRepository userRepository,
+                                 UserDetailsCache userDetailsCache,
+                                 SecurityVersionService securityVersionService,
+                                 EmployerSearchService employerSearchService,
+                                 PlatformTransactionManager transactionManager) {
+        this.employerRepository = employerRepository;
+        this.accountStatusChangeRepository = accountStatusChangeRepository;
+        this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.securityVersionService = securityVersionService;
+        this.employerSearchService = employerSearchService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Applique un changement de statut aux employeurs désignés par identifiants ou par critères
+     *
+     * @param request le changement demandé
+     * @param changedBy l'administrateur à l'origine du changement
+     * @return le bilan du changement
+     * @throws IllegalArgumentException si la demande est incomplète ou le statut cible non accepté
+     */
+    public Result apply(AccountStatusTransitionDto request, String changedBy) {
+        Employer.AccountStatus target = request.getStatus();
+        if (target != Employer.AccountStatus.ACTIVE && target != Employer.AccountStatus.INACTIVE) {
+            throw new IllegalArgumentException("Le statut cible doit être ACTIVE ou INACTIVE");
+        }
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (!byIds && request.getFilter() == null) {
+            throw new IllegalArgumentException("Les identifiants ou les critères des employeurs sont obligatoires");
+        }
+        if (byIds && request.getIds().size() > maxIds) {
+            throw new IllegalArgumentException("Trop d'identifiants (maximum " + maxIds + ")");
+        }
+
+        Set<Employer.AccountStatus> from = request.getFromStatuses() == null || request.getFromStatuses().isEmpty()
+                ? EnumSet.allOf(Employer.AccountStatus.class) : EnumSet.copyOf(request.getFromStatuses());
+        from.remove(target);
+        if (from.isEmpty()) {
+            throw new IllegalArgumentException("Aucun statut de départ différent du statut cible");
+        }
+        List<String> fromNames = from.stream().map(Enum::name).collect(Collectors.toList());
+
+        String reason = request.getReason() != null && !request.getReason().isBlank() ? request.getReason().trim() : null;
+        Transition transition = new Transition(UUID.randomUUID().toString(), target, fromNames, reason, changedBy,
+                LocalDateTime.now());
+
+        long selected = 0;
+        long updated = 0;
+        if (byIds) {
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+            selected = ids.size();
+            for (int start = 0; start < ids.size(); start += chunkSize) {
+                updated += applyChunk(transition, ids.subList(start, Math.min(start + chunkSize, ids.size())));
+            }
+        } else {
+            // Parcours des critères par curseur : chaque lot reprend après le dernier identifiant du précédent
+            EmployerFilter filter = request.getFilter();
+            long after = 0;
+            List<EmployerSummaryDto> page;
+            do {
+                page = employerRepository.search(filter, after, chunkSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                List<Long> ids = page.stream().map(EmployerSummaryDto::getId).collect(Collectors.toList());
+                selected += ids.size();
+                updated += applyChunk(transition, ids);
+                after = ids.get(ids.size() - 1);
+            } while (page.size() == chunkSize);
+        }
+
+        if (updated > 0) {
+            employerSearchService.clearCounts();
+        }
+        logger.info("Changement de statut {} vers {} par {} : {} employeur(s) sélectionné(s), {} modifié(s)",
+                transition.operationId, target, changedBy, selected, updated);
+        return new Result(transition.operationId, target, selected, updated);
+    }
+
+    private int applyChunk(Transition transition, List<Long> ids) {
+        Integer updated = transactionTemplate.execute(status -> {
+            List<Object[]> locked = employerRepository.lockForStatusChange(ids, transition.fromStatuses);
+            if (locked.isEmpty()) {
+                return 0;
+            }
+            List<Long> lockedIds = new ArrayList<>(locked.size());
+            List<String> emails = new ArrayList<>(locked.size());
+            for (Object[] row : locked) {
+                lockedIds.add(((Number) row[0]).longValue());
+                if (row[1] != null) {
+                    emails.add((String) row[1]);
+                }
+            }
+
+            // Historique d'abord : il lit le statut précédent des lignes verrouillées
+            accountStatusChangeRepository.insertForEmployers(transition.operationId, lockedIds, transition.target.name(),
+                    transition.reason, transition.changedBy, transition.changedAt);
+            int count = employerRepository.updateAccountStatus(lockedIds, transition.target, transition.reason,
+                    transition.changedAt);
+
+            if (!emails.isEmpty()) {
+                if (transition.target != Employer.AccountStatus.ACTIVE) {
+                    userRepository.incrementSecurityVersions(emails);
+                }
+                // Retraits effectués immédiatement puis de nouveau après le commit
+                userDetailsCache.evictAll(emails);
+                emails.forEach(securityVersionService::invalidate);
+            }
+            return count;
+        });
+        return updated != null ? updated : 0;
+    }
+
+    /**
+     * Paramètres communs aux lots d'un changement de statut
+     */
+    private static final class Transition {
+        private final String operationId;
+        private final Employer.AccountStatus target;
+        private final List<String> fromStatuses;
+        private final String reason;
+        private final String changedBy;
+        private final LocalDateTime changedAt;
+
+        private Transition(String operationId, Employer.AccountStatus target, List<String> fromStatuses, String reason,
+                           String changedBy, LocalDateTime changedAt) {
+            this.operationId = operationId;
+            this.target = target;
+            this.fromStatuses = fromStatuses;
+            this.reason = reason;
+            this.changedBy = changedBy;
+            this.changedAt = changedAt;
+        }
+    }
+
+    /**
+     * Bilan d'un changement de statut en masse
+     */
+    public static class Result {
+        private final String operationId;
+        private final Employer.AccountStatus status;
+        private final long selected; // Employeurs désignés (identifiants distincts ou correspondant aux critères)
+        private final long updated; // Employeurs effectivement modifiés
+
+        public Result(String operationId, Employer.AccountStatus status, long selected, long updated) {
+            this.operationId = operationId;
+            this.status = status;
+            this.selected = selected;
+            this.updated = updated;
+        }
+
+        public String getOperationId() {
+            return operationId;
+        }
+
+        public Employer.AccountStatus getStatus() {
+            return status;
+        }
+
+        public long getSelected() {
+            return selected;
+        }
+
+        public long getUpdated() {
+            return updated;
+        }
+    }
+}
@@ -1,49 +1,246 @@
 package com.solutionrh.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.solutionrh.service.storage.StorageBackend;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Service
 public class FileStorageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+
+    // Répertoire de dépôt temporaire, sous le répertoire d'upload pour que la promotion soit un simple renommage
+    public static final String STAGING_DIR = ".staging";
+
+    // Répertoire des blobs adressés par contenu : blobs/<2 premiers>/<2 suivants>/<sha256><extension>
+    public static final String BLOB_DIR = "blobs";
+
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
-    public String storeFile(MultipartFile file, String category, String professionalId) throws IOException {
+    // Stockage adressé par contenu : un document identique n'est écrit qu'une fois
+    @Value("${file.storage.deduplicate:true}")
+    private boolean deduplicate;
+
+    private final StorageBackend storageBackend;
+
+    public FileStorageService(StorageBackend storageBackend) {
+        this.storageBackend = storageBackend;
+    }
+
+    /**
+     * Dépose un fichier dans la zone temporaire, sans connaître encore son propriétaire.
+     * Le fichier temporaire multipart est déplacé par {@link MultipartFile#transferTo(java.io.File)}, qui passe par
+     * Part.write du conteneur : simple renommage lorsqu'il est sur le même volume que le répertoire d'upload
+     * (voir UploadConfig), copie sinon. La variante transferTo(Path) copie toujours le flux et n'est pas utilisée.
+     * L'empreinte SHA-256 est ensuite calculée par une seule lecture, sans nouvelle écriture.
+     * Aucune ressource base de données n'est nécessaire : à appeler avant d'ouvrir la transaction.
+     *
+     * @param file le fichier reçu
+     * @param category la catégorie du document (ninea, rccm...)
+     * @return le fichier déposé, ou null si aucun fichier n'a été envoyé
+     */
+    public StagedFile stageFile(MultipartFile file, String category) throws IOException {
         if (file == null || file.isEmpty()) {
             return null;
         }
-        
-        // Créer le répertoire si nécessaire
-        String targetDir = uploadDir + "/" + category + "/" + professionalId;
-        Path targetPath = Paths.get(targetDir);
-        Files.createDirectories(targetPath);
-        
-        // Générer un nom de fichier unique
-        String originalFilename = file.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
+        String extension = extensionOf(file);
         String filename = UUID.randomUUID().toString() + extension;
-        
-        // Sauvegarder le fichier
-        Path filePath = targetPath.resolve(filename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        
-        // Retourner le chemin relatif
-        return category + "/" + professionalId + "/" + filename;
-    }
-    
+        Path stagedPath = stagingDirectory().resolve(filename);
+        try {
+            file.transferTo(stagedPath.toFile());
+            return new StagedFile(stagedPath, category, filename, extension, sha256(stagedPath), Files.size(stagedPath));
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(stagedPath);
+            throw e;
+        }
+    }
+
+    /**
+     * Empreinte SHA-256 (hexadécimal) du contenu d'un fichier, lu par blocs sans passer par le tas
+     */
+    public String sha256(Path path) throws IOException {
+        MessageDigest digest = sha256Digest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Chemin relatif définitif d'un fichier déposé, calculable avant la promotion.
+     * En mode dédupliqué, il ne dépend que du contenu (et de l'extension).
+     */
+    public String finalPathOf(StagedFile staged, String professionalId) {
+        if (deduplicate) {
+            String sha = staged.getSha256();
+            return BLOB_DIR + "/" + sha.substring(0, 2) + "/" + sha.substring(2, 4) + "/" + sha + staged.getExtension();
+        }
+        return staged.getCategory() + "/" + professionalId + "/" + staged.getFilename();
+    }
+
+    /**
+     * Indique si le chemin désigne un blob partagé (référencé par compteur, jamais supprimé directement)
+     */
+    public boolean isContentAddressed(String relativePath) {
+        return relativePath != null && relativePath.startsWith(BLOB_DIR + "/");
+    }
+
+    /**
+     * Promeut un fichier déposé vers son emplacement définitif dans le stockage
+     * (déplacement atomique pour le stockage local, envoi pour un stockage objet)
+     *
+     * @param staged le fichier déposé
+     * @param relativePath le chemin relatif définitif (voir {@link #finalPathOf})
+     */
+    public void promote(StagedFile staged, String relativePath) throws IOException {
+        if (isContentAddressed(relativePath) && storageBackend.stat(relativePath).isPresent()) {
+            // Blob déjà présent : même contenu, aucune écriture
+            discard(staged);
+            return;
+        }
+        storageBackend.put(relativePath, staged.getPath());
+        discard(staged);
+    }
+
+    /**
+     * Supprime un fichier déposé non promu (compensation d'une inscription échouée)
+     */
+    public void discard(StagedFile staged) {
+        if (staged != null) {
+            deleteQuietly(staged.getPath());
+        }
+    }
+
+    /**
+     * Supprime un fichier définitif (compensation après une promotion partielle)
+     */
+    public void deleteFile(String relativePath) {
+        if (relativePath == null) {
+            return;
+        }
+        try {
+            storageBackend.delete(relativePath);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Impossible de supprimer le document {}: {}", relativePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Chemin local d'un document ; uniquement significatif avec le stockage local
+     */
     public Path getFilePath(String relativePath) {
-        return Paths.get(uploadDir).resolve(relativePath);
+        return storageBackend.localPath(relativePath).orElse(Paths.get(uploadDir).resolve(relativePath));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Impossible de supprimer le fichier {}: {}", path, e.getMessage());
+        }
+    }
+
+    private MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Répertoire de dépôt temporaire (créé au besoin)
+     */
+    public Path stagingDirectory() throws IOException {
+        Path stagingPath = Paths.get(uploadDir, STAGING_DIR).toAbsolutePath();
+        Files.createDirectories(stagingPath);
+        return stagingPath;
+    }
+
+    private String extensionOf(MultipartFile file) {
+        return extensionOf(file.getOriginalFilename());
+    }
+
+    /**
+     * Extension normalisée d'un nom de fichier fourni par le client (vide si absente ou non alphanumérique)
+     */
+    public String extensionOf(String originalFilename) {
+        if (originalFilename != null && originalFilename.contains(".")) {
+            String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            // L'extension entre dans le chemin de stockage : seuls les caractères alphanumériques sont admis
+            if (extension.matches("\\.[A-Za-z0-9]{1,10}")) {
+                return extension.toLowerCase();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Fichier déposé dans la zone temporaire, en attente de promotion
+     */
+    public static class StagedFile {
+        private final Path path;
+        private final String category;
+        private final String filename;
+        private final String extension;
+        private final String sha256;
+        private final long size;
+
+        public StagedFile(Path path, String category, String filename, String extension, String sha256, long size) {
+            this.path = path;
+            this.category = category;
+            this.filename = filename;
+            this.extension = extension;
+            this.sha256 = sha256;
+            this.size = size;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public long getSize() {
+            return size;
+        }
     }
 }
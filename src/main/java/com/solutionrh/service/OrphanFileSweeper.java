@@ -0,0 +1,353 @@
+package com.solutionrh.service;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.solutionrh.UploadConfig;
+import com.solutionrh.dao.DocumentBlobRepository;
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.service.storage.StorageBackend;
+
+/**
+ * Nettoyage incrémental des fichiers orphelins du répertoire d'upload (stockage local uniquement).
+ * <ul>
+ * <li>L'arborescence est parcourue en profondeur, les entrées de chaque répertoire triées par nom : l'ordre de
+ * visite est l'ordre des chemins relatifs, stable d'un passage à l'autre. Les fichiers plus anciens que le délai
+ * de grâce sont vérifiés par lots (une requête IN par lot) contre les chemins des employeurs et les blobs
+ * référencés.</li>
+ * <li>Un orphelin est d'abord mis en quarantaine (renommage sous .quarantine), puis supprimé au passage suivant
+ * après le délai de grâce s'il n'est toujours pas référencé ; sinon il est restauré.</li>
+ * <li>Le débit est limité (fichiers par seconde) et chaque passage traite un nombre borné de fichiers. Le dernier
+ * fichier traité est enregistré comme point de reprise : le passage suivant saute, sans requête, les chemins
+ * qui ne lui sont pas postérieurs, même si ce fichier a depuis été mis en quarantaine ou supprimé.</li>
+ * </ul>
+ */
+@Component
+public class OrphanFileSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanFileSweeper.class);
+
+    public static final String QUARANTINE_DIR = ".quarantine";
+    public static final String SWEEPER_DIR = ".sweeper";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final EmployerRepository employerRepository;
+    private final DocumentBlobRepository documentBlobRepository;
+    private final StorageBackend storageBackend;
+
+    @Value("${file.orphan-sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.orphan-sweeper.grace-ms:86400000}")
+    private long graceMillis;
+
+    @Value("${file.orphan-sweeper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${file.orphan-sweeper.files-per-second:500}")
+    private int filesPerSecond;
+
+    @Value("${file.orphan-sweeper.max-files-per-run:100000}")
+    private int maxFilesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrphanFileSweeper(EmployerRepository employerRepository,
+                             DocumentBlobRepository documentBlobRepository,
+                             StorageBackend storageBackend) {
+        this.employerRepository = employerRepository;
+        this.documentBlobRepository = documentBlobRepository;
+        this.storageBackend = storageBackend;
+    }
+
+    @Scheduled(initialDelayString = "${file.orphan-sweeper.initial-delay-ms:300000}",
+            fixedDelayString = "${file.orphan-sweeper.interval-ms:3600000}")
+    public void sweep() {
+        Optional<Path> root = storageBackend.localPath("");
+        if (!enabled || root.isEmpty() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Path uploadRoot = root.get();
+            if (!Files.isDirectory(uploadRoot)) {
+                return;
+            }
+            purgeQuarantine(uploadRoot);
+            purgeStaleStaging(uploadRoot);
+            sweepTree(uploadRoot);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Erreur lors du nettoyage des fichiers orphelins: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Parcourt l'arborescence depuis le point de reprise et met les orphelins en quarantaine
+    private void sweepTree(Path root) throws IOException {
+        Path checkpointFile = root.resolve(SWEEPER_DIR).resolve(CHECKPOINT_FILE);
+        String checkpoint = Files.exists(checkpointFile) ? Files.readString(checkpointFile).trim() : "";
+        long cutoff = System.currentTimeMillis() - graceMillis;
+
+        TreeSweep sweep = new TreeSweep(root, checkpoint, cutoff);
+        sweep.walk(root);
+        sweep.flush();
+
+        Files.createDirectories(checkpointFile.getParent());
+        if (sweep.completed) {
+            // Cycle terminé : le prochain passage repart du début
+            Files.deleteIfExists(checkpointFile);
+        } else {
+            Files.writeString(checkpointFile, sweep.lastProcessed);
+        }
+        logger.info("Nettoyage des fichiers orphelins : {} fichier(s) vérifié(s), {} mis en quarantaine{}",
+                sweep.checked, sweep.quarantined, sweep.completed ? ", cycle terminé" : "");
+    }
+
+    // Supprime les orphelins en quarantaine depuis plus que le délai de grâce, restaure ceux de nouveau référencés
+    private void purgeQuarantine(Path root) throws IOException {
+        Path quarantine = root.resolve(QUARANTINE_DIR);
+        if (!Files.isDirectory(quarantine)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - graceMillis;
+        List<String> batch = new ArrayList<>();
+        Files.walkFileTree(quarantine, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (attributes.lastModifiedTime().toMillis() < cutoff) {
+                    batch.add(relativize(quarantine, file));
+                    if (batch.size() >= batchSize) {
+                        purgeBatch(root, quarantine, batch);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        purgeBatch(root, quarantine, batch);
+    }
+
+    private void purgeBatch(Path root, Path quarantine, List<String> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>(employerRepository.findReferencedDocumentPaths(batch));
+        for (String relativePath : batch) {
+            Path quarantined = quarantine.resolve(relativePath);
+            if (referenced.contains(relativePath)) {
+                Path target = root.resolve(relativePath);
+                if (!Files.exists(target)) {
+                    Files.createDirectories(target.getParent());
+                    move(quarantined, target);
+                    logger.info("Fichier {} de nouveau référencé, restauré depuis la quarantaine", relativePath);
+                } else {
+                    Files.deleteIfExists(quarantined);
+                }
+            } else {
+                Files.deleteIfExists(quarantined);
+                if (relativePath.startsWith(FileStorageService.BLOB_DIR + "/")) {
+                    documentBlobRepository.deleteUnreferenced(relativePath);
+                }
+                logger.debug("Fichier orphelin {} supprimé", relativePath);
+            }
+        }
+        int processed = batch.size();
+        batch.clear();
+        pace(processed);
+    }
+
+    // Supprime les dépôts temporaires abandonnés (inscriptions interrompues, envois fractionnés expirés)
+    private void purgeStaleStaging(Path root) throws IOException {
+        Path staging = root.resolve(FileStorageService.STAGING_DIR);
+        if (!Files.isDirectory(staging)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - graceMillis;
+        Files.walkFileTree(staging, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                // Les fichiers temporaires multipart sont gérés par le conteneur
+                return dir.getFileName().toString().equals(UploadConfig.MULTIPART_DIR)
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (attributes.lastModifiedTime().toMillis() < cutoff) {
+                    Files.deleteIfExists(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+    }
+
+    // Limite le débit : un lot de n fichiers occupe au moins n / filesPerSecond secondes
+    private void pace(int files) {
+        if (filesPerSecond <= 0 || files <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(files * 1000L / filesPerSecond);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String relativize(Path base, Path file) {
+        return base.relativize(file).toString().replace('\\', '/');
+    }
+
+    /**
+     * Compare deux chemins relatifs segment par segment : c'est l'ordre de visite du parcours trié
+     * (un répertoire précède son contenu)
+     */
+    static int comparePaths(String a, String b) {
+        String[] left = a.split("/");
+        String[] right = b.split("/");
+        for (int i = 0; i < Math.min(left.length, right.length); i++) {
+            int result = left[i].compareTo(right[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(left.length, right.length);
+    }
+
+    /**
+     * Un passage sur l'arborescence : saut jusqu'au point de reprise, puis vérification par lots
+     */
+    private final class TreeSweep {
+
+        private final Path root;
+        private final String checkpoint;
+        private final long cutoff;
+        private final List<String> batch = new ArrayList<>();
+        private boolean completed = true;
+        private String lastProcessed = "";
+        private int checked;
+        private int quarantined;
+
+        private TreeSweep(Path root, String checkpoint, long cutoff) {
+            this.root = root;
+            this.checkpoint = checkpoint;
+            this.cutoff = cutoff;
+        }
+
+        /**
+         * Parcourt un répertoire, entrées triées par nom (seul le contenu d'un répertoire est chargé à la fois)
+         *
+         * @return false si le nombre maximal de fichiers du passage est atteint
+         */
+        private boolean walk(Path dir) throws IOException {
+            List<Path> entries;
+            try (Stream<Path> stream = Files.list(dir)) {
+                entries = stream.sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                        .collect(Collectors.toList());
+            } catch (NoSuchFileException e) {
+                return true;
+            } catch (IOException e) {
+                logger.warn("Répertoire inaccessible lors du nettoyage: {} ({})", dir, e.getMessage());
+                return true;
+            }
+            for (Path entry : entries) {
+                String relativePath = relativize(root, entry);
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    continue; // Supprimé entre-temps ou inaccessible
+                }
+                if (attributes.isDirectory()) {
+                    // Répertoires techniques (dépôt, quarantaine, point de reprise) exclus du parcours ;
+                    // un sous-arbre entièrement antérieur au point de reprise n'est pas listé
+                    if (entry.getFileName().toString().startsWith(".") || isBeforeCheckpoint(relativePath)
+                            && !checkpoint.startsWith(relativePath + "/")) {
+                        continue;
+                    }
+                    if (!walk(entry)) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (isBeforeCheckpoint(relativePath) || relativePath.equals(checkpoint)) {
+                    // Déjà vérifié lors du passage précédent : ni requête ni limitation de débit
+                    continue;
+                }
+                if (attributes.isRegularFile() && attributes.lastModifiedTime().toMillis() < cutoff) {
+                    batch.add(relativePath);
+                    if (batch.size() >= batchSize) {
+                        flush();
+                    }
+                }
+                lastProcessed = relativePath;
+                if (checked + batch.size() >= maxFilesPerRun) {
+                    completed = false;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isBeforeCheckpoint(String relativePath) {
+            return !checkpoint.isEmpty() && comparePaths(relativePath, checkpoint) < 0;
+        }
+
+        private void flush() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            Set<String> referenced = new HashSet<>(employerRepository.findReferencedDocumentPaths(batch));
+            Path quarantine = root.resolve(QUARANTINE_DIR);
+            for (String relativePath : batch) {
+                if (referenced.contains(relativePath)) {
+                    continue;
+                }
+                Path target = quarantine.resolve(relativePath);
+                try {
+                    Files.createDirectories(target.getParent());
+                    move(root.resolve(relativePath), target);
+                    // La date de modification marque le début de la quarantaine
+                    Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                    quarantined++;
+                } catch (NoSuchFileException e) {
+                    // Supprimé entre-temps
+                }
+            }
+            checked += batch.size();
+            int processed = batch.size();
+            batch.clear();
+            pace(processed);
+        }
+    }
+}
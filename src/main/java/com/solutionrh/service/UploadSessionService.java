@@ -0,0 +1,472 @@
+package com.solutionrh.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.solutionrh.exception.ResourceNotFoundException;
+import com.solutionrh.exception.ServiceOverloadedException;
+import com.solutionrh.exception.UploadMisdirectedException;
+import com.solutionrh.exception.UploadOffsetMismatchException;
+import com.solutionrh.exception.UploadQuotaExceededException;
+import com.solutionrh.exception.UploadTooLargeException;
+import com.solutionrh.service.FileStorageService.StagedFile;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Envois fractionnés et reprenables des documents d'inscription.
+ * Un envoi est créé avec sa taille totale, reçoit ses morceaux à des positions croissantes (écritures NIO
+ * positionnelles dans un fichier .part), puis est finalisé : le fichier complet est renommé atomiquement
+ * dans la zone de dépôt et peut être référencé par son identifiant lors de l'inscription.
+ * <p>
+ * L'état de chaque envoi est écrit à côté de ses données (fichier .session) et rechargé au démarrage :
+ * un redémarrage n'interrompt pas les envois en cours. La zone de dépôt est locale au nœud : avec plusieurs
+ * nœuds, le répartiteur de charge doit router un envoi vers le nœud qui l'a créé. L'identifiant de l'envoi
+ * est alors préfixé par l'identifiant du nœud (file.upload-session.node-id) et un nœud qui reçoit l'envoi
+ * d'un autre le refuse au lieu de le déclarer introuvable.
+ * <p>
+ * Les envois inactifs au-delà de la durée de vie sont supprimés par une tâche planifiée. Le nombre d'envois
+ * en cours est limité globalement et par adresse IP du client, ce qui borne l'espace disque occupé.
+ */
+@Service
+public class UploadSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionService.class);
+
+    public static final String UPLOADS_DIR = "uploads";
+    public static final String PART_SUFFIX = ".part";
+    public static final String SESSION_SUFFIX = ".session";
+
+    private static final int CHUNK_BUFFER_SIZE = 64 * 1024;
+    private static final char NODE_SEPARATOR = '.';
+    private static final long RETRY_AFTER_SECONDS = 60;
+
+    private final FileStorageService fileStorageService;
+    private final long maxUploadSize;
+    private final int maxSessions;
+    private final int maxSessionsPerClient;
+    private final long ttlMillis;
+    private final String nodeId;
+
+    private final ConcurrentHashMap<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    // Les contrôles de quota et l'ajout d'un envoi sont faits sous ce verrou (créations peu fréquentes)
+    private final Object admission = new Object();
+
+    public UploadSessionService(FileStorageService fileStorageService,
+                                @Value("${file.upload-session.max-size:${spring.servlet.multipart.max-file-size:10MB}}") DataSize maxUploadSize,
+                                @Value("${file.upload-session.max-sessions:1000}") int maxSessions,
+                                @Value("${file.upload-session.max-sessions-per-client:5}") int maxSessionsPerClient,
+                                @Value("${file.upload-session.ttl-ms:86400000}") long ttlMillis,
+                                @Value("${file.upload-session.node-id:}") String nodeId) {
+        this.fileStorageService = fileStorageService;
+        this.maxUploadSize = maxUploadSize.toBytes();
+        this.maxSessions = maxSessions;
+        this.maxSessionsPerClient = maxSessionsPerClient;
+        this.ttlMillis = ttlMillis;
+        this.nodeId = nodeId.trim();
+    }
+
+    /**
+     * Recharge les envois enregistrés avant le redémarrage
+     */
+    @PostConstruct
+    public void restore() {
+        try {
+            Path directory = uploadsDirectory();
+            if (Files.isDirectory(directory)) {
+                restore(directory);
+            }
+        } catch (IOException e) {
+            logger.warn("Impossible de recharger les envois en cours: {}", e.getMessage());
+        }
+        if (!sessions.isEmpty()) {
+            logger.info("{} envoi(s) fractionné(s) rechargé(s)", sessions.size());
+        }
+    }
+
+    private void restore(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SESSION_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    UploadSession session = load(file);
+                    if (session != null) {
+                        sessions.put(session.id, session);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("État d'envoi illisible, ignoré: {} ({})", file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Crée un envoi fractionné
+     *
+     * @param originalFilename le nom du fichier côté client (pour l'extension)
+     * @param size la taille totale annoncée en octets
+     * @param clientIp l'adresse IP du client (quota par client)
+     * @return l'envoi créé
+     * @throws UploadQuotaExceededException si le client a déjà trop d'envois en cours
+     * @throws ServiceOverloadedException si le nombre total d'envois en cours est atteint
+     */
+    public UploadSession create(String originalFilename, long size, String clientIp) throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("La taille du fichier doit être positive");
+        }
+        if (size > maxUploadSize) {
+            throw new UploadTooLargeException("Fichier trop volumineux (maximum " + maxUploadSize + " octets)");
+        }
+
+        Path directory = uploadsDirectory();
+        Files.createDirectories(directory);
+        String uuid = UUID.randomUUID().toString();
+        String id = nodeId.isEmpty() ? uuid : nodeId + NODE_SEPARATOR + uuid;
+        UploadSession session = new UploadSession(id, directory.resolve(uuid + PART_SUFFIX),
+                directory.resolve(uuid + SESSION_SUFFIX), fileStorageService.extensionOf(originalFilename), size,
+                clientIp);
+
+        synchronized (admission) {
+            if (sessions.size() >= maxSessions) {
+                throw new ServiceOverloadedException("Trop d'envois en cours, veuillez réessayer plus tard",
+                        RETRY_AFTER_SECONDS);
+            }
+            long active = sessions.values().stream().filter(s -> clientIp.equals(s.clientIp)).count();
+            if (active >= maxSessionsPerClient) {
+                throw new UploadQuotaExceededException("Trop d'envois en cours pour ce client (maximum "
+                        + maxSessionsPerClient + ")", RETRY_AFTER_SECONDS);
+            }
+            Files.createFile(session.partPath);
+            try {
+                save(session);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(session.partPath);
+                throw e;
+            }
+            sessions.put(id, session);
+        }
+        return session;
+    }
+
+    /**
+     * Retourne l'état d'un envoi (position courante pour la reprise)
+     *
+     * @throws UploadMisdirectedException si l'envoi a été créé par un autre nœud
+     */
+    public UploadSession get(String id) {
+        UploadSession session = sessions.get(id);
+        if (session == null) {
+            int separator = id.indexOf(NODE_SEPARATOR);
+            if (separator > 0 && !id.substring(0, separator).equals(nodeId)) {
+                throw new UploadMisdirectedException("Envoi détenu par un autre nœud: " + id, id.substring(0, separator));
+            }
+            throw new ResourceNotFoundException("Envoi introuvable ou expiré: " + id);
+        }
+        return session;
+    }
+
+    /**
+     * Ajoute un morceau à la position indiquée, qui doit être la position courante de l'envoi.
+     * Le morceau est écrit au fil de la lecture, sans dépasser la taille annoncée.
+     *
+     * @return la nouvelle position
+     */
+    public long appendChunk(String id, long offset, InputStream body) throws IOException {
+        UploadSession session = get(id);
+        synchronized (session) {
+            if (session.staged != null) {
+                throw new UploadOffsetMismatchException("Envoi déjà finalisé", session.received);
+            }
+            if (offset != session.received) {
+                throw new UploadOffsetMismatchException("Position attendue: " + session.received, session.received);
+            }
+            long position = offset;
+            try (FileChannel channel = FileChannel.open(session.partPath, StandardOpenOption.WRITE)) {
+                byte[] bytes = new byte[CHUNK_BUFFER_SIZE];
+                int read;
+                while ((read = body.read(bytes)) != -1) {
+                    if (position + read > session.size) {
+                        // Morceau au-delà de la taille annoncée : la partie reçue valide est conservée
+                        session.received = position;
+                        session.touch();
+                        throw new UploadTooLargeException("Le morceau dépasse la taille annoncée (" + session.size + " octets)");
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, read);
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                }
+            } finally {
+                // Une connexion interrompue conserve les octets déjà écrits : le client reprend à cette position
+                session.received = Math.max(session.received, Math.min(position, session.size));
+                session.touch();
+            }
+            return session.received;
+        }
+    }
+
+    /**
+     * Finalise un envoi complet : empreinte SHA-256 puis renommage atomique dans la zone de dépôt
+     */
+    public UploadSession complete(String id) throws IOException {
+        UploadSession session = get(id);
+        synchronized (session) {
+            if (session.staged != null) {
+                return session;
+            }
+            if (session.received != session.size) {
+                throw new UploadOffsetMismatchException("Envoi incomplet: " + session.received + "/" + session.size
+                        + " octets reçus", session.received);
+            }
+            String filename = UUID.randomUUID().toString() + session.extension;
+            Path stagedPath = fileStorageService.stagingDirectory().resolve(filename);
+            String sha256 = fileStorageService.sha256(session.partPath);
+            try {
+                Files.move(session.partPath, stagedPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(session.partPath, stagedPath);
+            }
+            session.staged = new StagedFile(stagedPath, null, filename, session.extension, sha256, session.size);
+            session.touch();
+            save(session);
+            return session;
+        }
+    }
+
+    /**
+     * Réserve un envoi finalisé pour l'utiliser comme document d'inscription.
+     * L'envoi reste enregistré jusqu'à la validation de l'inscription ({@link #release(String)}) ; si elle
+     * échoue, {@link #unclaim(String)} le rend au client, qui peut réessayer sans renvoyer le fichier.
+     *
+     * @param id l'identifiant de l'envoi
+     * @param category la catégorie du document (ninea, rccm...)
+     * @return le fichier déposé
+     * @throws UploadOffsetMismatchException si l'envoi n'est pas finalisé ou déjà réservé
+     */
+    public StagedFile claim(String id, String category) {
+        UploadSession session = get(id);
+        synchronized (session) {
+            if (session.staged == null) {
+                throw new UploadOffsetMismatchException("Envoi non finalisé: " + id, session.received);
+            }
+            if (session.claimed) {
+                throw new UploadOffsetMismatchException("Envoi déjà utilisé par une inscription en cours: " + id,
+                        session.received);
+            }
+            session.claimed = true;
+            session.touch();
+            StagedFile staged = session.staged;
+            return new StagedFile(staged.getPath(), category, staged.getFilename(), staged.getExtension(),
+                    staged.getSha256(), staged.getSize());
+        }
+    }
+
+    /**
+     * Oublie un envoi réservé une fois l'inscription validée ; le fichier déposé a été promu par l'appelant
+     */
+    public void release(String id) {
+        UploadSession session = sessions.remove(id);
+        if (session != null) {
+            deleteQuietly(session, session.sessionPath);
+        }
+    }
+
+    /**
+     * Rend au client un envoi réservé par une inscription qui a échoué. Si le fichier déposé a déjà été
+     * déplacé (promotion partielle), l'envoi ne peut plus servir et il est supprimé.
+     */
+    public void unclaim(String id) {
+        UploadSession session = sessions.get(id);
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            session.claimed = false;
+            session.touch();
+            if (session.staged != null && Files.exists(session.staged.getPath())) {
+                return;
+            }
+        }
+        if (sessions.remove(id, session)) {
+            delete(session);
+        }
+    }
+
+    /**
+     * Abandonne un envoi et supprime ses données ; un envoi réservé par une inscription en cours est conservé
+     */
+    public void cancel(String id) {
+        UploadSession session = sessions.get(id);
+        if (session != null && !session.claimed && sessions.remove(id, session)) {
+            delete(session);
+        }
+    }
+
+    /**
+     * Supprime les envois inactifs depuis plus que la durée de vie
+     */
+    @Scheduled(initialDelayString = "${file.upload-session.cleanup-interval-ms:300000}",
+            fixedDelayString = "${file.upload-session.cleanup-interval-ms:300000}")
+    public void expireIdleSessions() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> {
+            if (session.claimed || now - session.lastActivity < ttlMillis) {
+                return false;
+            }
+            logger.debug("Envoi {} expiré", session.id);
+            delete(session);
+            return true;
+        });
+    }
+
+    private Path uploadsDirectory() throws IOException {
+        return fileStorageService.stagingDirectory().resolve(UPLOADS_DIR);
+    }
+
+    // État persistant d'un envoi ; la position reçue n'y figure pas, c'est la taille du fichier .part
+    private void save(UploadSession session) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("id", session.id);
+        properties.setProperty("size", Long.toString(session.size));
+        properties.setProperty("extension", session.extension);
+        properties.setProperty("clientIp", session.clientIp);
+        StagedFile staged = session.staged;
+        if (staged != null) {
+            properties.setProperty("stagedFilename", staged.getFilename());
+            properties.setProperty("sha256", staged.getSha256());
+        }
+        Path temp = session.sessionPath.resolveSibling(session.sessionPath.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, null);
+        }
+        try {
+            Files.move(temp, session.sessionPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, session.sessionPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Reconstruit un envoi depuis son état persistant, null si ses données ont disparu
+    private UploadSession load(Path sessionPath) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(sessionPath, StandardCharsets.ISO_8859_1)) {
+            properties.load(reader);
+        }
+        String name = sessionPath.getFileName().toString();
+        String uuid = name.substring(0, name.length() - SESSION_SUFFIX.length());
+        UploadSession session = new UploadSession(properties.getProperty("id"), sessionPath.resolveSibling(uuid + PART_SUFFIX),
+                sessionPath, properties.getProperty("extension", ""), Long.parseLong(properties.getProperty("size")),
+                properties.getProperty("clientIp", ""));
+
+        String stagedFilename = properties.getProperty("stagedFilename");
+        Path data;
+        if (stagedFilename != null) {
+            data = fileStorageService.stagingDirectory().resolve(stagedFilename);
+            if (Files.exists(data)) {
+                session.staged = new StagedFile(data, null, stagedFilename, session.extension,
+                        properties.getProperty("sha256"), session.size);
+                session.received = session.size;
+            }
+        } else {
+            data = session.partPath;
+            if (Files.exists(data)) {
+                session.received = Math.min(Files.size(data), session.size);
+            }
+        }
+        if (!Files.exists(data)) {
+            Files.deleteIfExists(sessionPath);
+            return null;
+        }
+        session.lastActivity = Files.getLastModifiedTime(data).toMillis();
+        return session;
+    }
+
+    private void delete(UploadSession session) {
+        synchronized (session) {
+            deleteQuietly(session, session.partPath);
+            deleteQuietly(session, session.sessionPath);
+            if (session.staged != null) {
+                deleteQuietly(session, session.staged.getPath());
+            }
+        }
+    }
+
+    private void deleteQuietly(UploadSession session, Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Impossible de supprimer les données de l'envoi {}: {}", session.id, e.getMessage());
+        }
+    }
+
+    /**
+     * État d'un envoi fractionné ; modifié sous le verrou de l'instance
+     */
+    public static class UploadSession {
+        private final String id;
+        private final Path partPath;
+        private final Path sessionPath;
+        private final String extension;
+        private final long size;
+        private final String clientIp;
+        private volatile long received;
+        private volatile long lastActivity;
+        private volatile StagedFile staged;
+        private volatile boolean claimed; // Réservé par une inscription en cours (non persisté)
+
+        private UploadSession(String id, Path partPath, Path sessionPath, String extension, long size, String clientIp) {
+            this.id = id;
+            this.partPath = partPath;
+            this.sessionPath = sessionPath;
+            this.extension = extension;
+            this.size = size;
+            this.clientIp = clientIp;
+            this.lastActivity = System.currentTimeMillis();
+        }
+
+        private void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getReceived() {
+            return received;
+        }
+
+        public boolean isCompleted() {
+            return staged != null;
+        }
+
+        public String getSha256() {
+            return staged != null ? staged.getSha256() : null;
+        }
+    }
+}
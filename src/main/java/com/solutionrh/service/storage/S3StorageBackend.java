@@ -0,0 +1,173 @@
+package com.solutionrh.service.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Stockage dans un bucket compatible S3 (AWS, MinIO...), pour que plusieurs nœuds partagent les documents
+ * sans disque commun. Les objets plus grands qu'une partie sont envoyés en multipart upload ; le client S3
+ * (et son pool de connexions HTTP) est partagé par toutes les requêtes.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "s3")
+public class S3StorageBackend implements StorageBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3StorageBackend.class);
+
+    // Taille minimale d'une partie imposée par S3 (hors dernière partie)
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String prefix;
+    private final long partSize;
+
+    @Autowired
+    public S3StorageBackend(S3Client s3Client,
+                            @Value("${file.storage.s3.bucket}") String bucket,
+                            @Value("${file.storage.s3.prefix:}") String prefix,
+                            @Value("${file.storage.s3.part-size:8MB}") DataSize partSize) {
+        this(s3Client, bucket, prefix, partSize.toBytes());
+    }
+
+    S3StorageBackend(S3Client s3Client, String bucket, String prefix, long partSize) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.prefix = prefix == null || prefix.isEmpty() ? "" : (prefix.endsWith("/") ? prefix : prefix + "/");
+        this.partSize = Math.max(MIN_PART_SIZE, partSize);
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        if (size <= partSize) {
+            s3Client.putObject(builder -> builder.bucket(bucket).key(objectKey(key)).contentLength(size),
+                    RequestBody.fromFile(source));
+        } else {
+            // Chaque partie relit sa plage du fichier : une nouvelle tentative repart du début de la partie
+            multipartUpload(key, size, (offset, length) -> RequestBody.fromContentProvider(
+                    rangeProvider(source, offset, length), length, "application/octet-stream"));
+        }
+        Files.deleteIfExists(source);
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size) throws IOException {
+        if (size <= partSize) {
+            s3Client.putObject(builder -> builder.bucket(bucket).key(objectKey(key)).contentLength(size),
+                    RequestBody.fromInputStream(content, size));
+            return;
+        }
+        // Une seule partie en mémoire à la fois, relue depuis le tampon en cas de nouvelle tentative
+        byte[] buffer = new byte[(int) partSize];
+        multipartUpload(key, size, (offset, length) -> {
+            int read = content.readNBytes(buffer, 0, (int) length);
+            if (read < length) {
+                throw new EOFException("Flux interrompu après " + (offset + read) + " octets sur " + size);
+            }
+            return RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, read), read);
+        });
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        try {
+            return s3Client.getObject(builder -> builder.bucket(bucket).key(objectKey(key))
+                    .range("bytes=" + offset + "-" + (offset + length - 1)));
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        s3Client.deleteObject(builder -> builder.bucket(bucket).key(objectKey(key)));
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3Client.headObject(builder -> builder.bucket(bucket).key(objectKey(key)));
+            String etag = head.eTag() == null ? null : head.eTag().replace("\"", "");
+            long lastModified = head.lastModified() == null ? 0 : head.lastModified().toEpochMilli();
+            return Optional.of(new StoredObject(key, head.contentLength(), lastModified, etag));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    private void multipartUpload(String key, long size, PartBody partBody) throws IOException {
+        String objectKey = objectKey(key);
+        String uploadId = s3Client.createMultipartUpload(builder -> builder.bucket(bucket).key(objectKey)).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                long length = Math.min(partSize, size - offset);
+                int number = partNumber;
+                String etag = s3Client.uploadPart(builder -> builder.bucket(bucket).key(objectKey)
+                        .uploadId(uploadId).partNumber(number).contentLength(length),
+                        partBody.of(offset, length)).eTag();
+                parts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
+            }
+            s3Client.completeMultipartUpload(builder -> builder.bucket(bucket).key(objectKey).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Échec de l'envoi multipart de {}, abandon de l'envoi {}", objectKey, uploadId);
+            s3Client.abortMultipartUpload(builder -> builder.bucket(bucket).key(objectKey).uploadId(uploadId));
+            throw e;
+        }
+    }
+
+    private ContentStreamProvider rangeProvider(Path source, long offset, long length) {
+        return () -> {
+            try {
+                return RangeInputStream.open(source, offset, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private String objectKey(String key) {
+        return prefix + key;
+    }
+
+    // Corps d'une partie [offset, offset + length)
+    @FunctionalInterface
+    private interface PartBody {
+        RequestBody of(long offset, long length) throws IOException;
+    }
+}
@@ -0,0 +1,54 @@
+package com.solutionrh.service.storage;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+/**
+ * Client S3 unique pour l'application : son pool de connexions HTTP (keep-alive) est réutilisé par
+ * toutes les lectures et écritures de documents.
+ */
+@Configuration
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "s3")
+public class S3StorageConfig {
+
+    @Bean(destroyMethod = "close")
+    public S3Client s3Client(@Value("${file.storage.s3.region:us-east-1}") String region,
+                             @Value("${file.storage.s3.endpoint:}") String endpoint,
+                             @Value("${file.storage.s3.path-style:false}") boolean pathStyle,
+                             @Value("${file.storage.s3.access-key:}") String accessKey,
+                             @Value("${file.storage.s3.secret-key:}") String secretKey,
+                             @Value("${file.storage.s3.max-connections:50}") int maxConnections) {
+        AwsCredentialsProvider credentials = StringUtils.hasText(accessKey)
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+                : DefaultCredentialsProvider.builder().build();
+
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .forcePathStyle(pathStyle)
+                .httpClientBuilder(ApacheHttpClient.builder()
+                        .maxConnections(maxConnections)
+                        .tcpKeepAlive(true)
+                        .connectionMaxIdleTime(Duration.ofSeconds(60)));
+        if (StringUtils.hasText(endpoint)) {
+            // Stockage compatible S3 (MinIO, Ceph...)
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.solutionrh.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Stockage des documents par clé (chemin relatif, ex: blobs/ab/cd/<sha256>.pdf).
+ * Les contenus sont toujours lus et écrits en flux : aucune implémentation ne charge un document entier en mémoire.
+ */
+public interface StorageBackend {
+
+    /**
+     * Enregistre un fichier local sous la clé. Le fichier source peut être déplacé ou supprimé par l'implémentation.
+     */
+    void put(String key, Path source) throws IOException;
+
+    /**
+     * Enregistre un flux de taille connue sous la clé
+     */
+    void put(String key, InputStream content, long size) throws IOException;
+
+    /**
+     * Ouvre le contenu à partir de la position donnée, sur la longueur donnée
+     */
+    InputStream get(String key, long offset, long length) throws IOException;
+
+    /**
+     * Supprime l'objet (sans erreur s'il n'existe pas)
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Métadonnées de l'objet, vide s'il n'existe pas
+     */
+    Optional<StoredObject> stat(String key) throws IOException;
+
+    /**
+     * Fichier local correspondant à la clé, lorsque le stockage est un système de fichiers (envoi sans copie)
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,22 @@
+package com.solutionrh.service.storage;
+
+import lombok.Getter;
+
+/**
+ * Métadonnées d'un objet stocké
+ */
+@Getter
+public class StoredObject {
+
+    private final String key;
+    private final long size;
+    private final long lastModified; // en millisecondes
+    private final String etag; // empreinte fournie par le stockage, null si inconnue
+
+    public StoredObject(String key, long size, long lastModified, String etag) {
+        this.key = key;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.etag = etag;
+    }
+}
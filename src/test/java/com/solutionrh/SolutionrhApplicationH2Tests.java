@@ -0,0 +1,59 @@
+package com.solutionrh;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.dto.EmployerSearchHitDto;
+import com.solutionrh.model.Employer;
+import com.solutionrh.service.EmployerNameIndex;
+
+/**
+ * Démarrage complet du contexte sur une base H2 en mode MySQL : contextLoads exige un serveur MySQL,
+ * ce test détecte les erreurs de câblage (cycles de dépendances notamment) sans base externe.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:solutionrh;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.security=INFO",
+        "file.upload-dir=target/test-uploads"
+})
+class SolutionrhApplicationH2Tests {
+
+    @Autowired
+    private EmployerRepository employerRepository;
+
+    @Autowired
+    private EmployerNameIndex employerNameIndex;
+
+    @Test
+    void contextStartsAndEntityListenersReachTheNameIndex() {
+        assertTrue(employerNameIndex.isLoaded());
+
+        Employer employer = new Employer();
+        employer.setCompanyName("Société Nationale des Télécommunications");
+        employer.setNinea("0012345A2");
+        employer.setActivitySector(Employer.ActivitySector.TELECOMMUNICATIONS);
+        employer.setSize(Employer.Size.GRANDE_ENTREPRISE);
+        employer.setDepartment(Employer.department.DAKAR);
+        employer.setProfessionalPhone("770001122");
+        employer.setProfessionalEmail("contact@sonatel.test");
+        employer.setPassword("$2a$10$hash");
+        employer.setAccountStatus(Employer.AccountStatus.ACTIVE);
+        Long id = employerRepository.save(employer).getId();
+
+        List<Long> hits = employerNameIndex.search("societe telecomunications", 5).stream()
+                .map(EmployerSearchHitDto::getId).collect(Collectors.toList());
+        assertEquals(List.of(id), hits);
+    }
+}
@@ -0,0 +1,138 @@
+package com.solutionrh.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.solutionrh.security.service.SecurityVersionService;
+
+import io.jsonwebtoken.CompressionCodecs;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+class JwtGeneratorTest {
+
+    private static final String SECRET = "test_secret_key_0123456789012345678901234567890123456789012345678901";
+
+    private final Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    private JwtGenerator jwtGenerator;
+
+    @BeforeEach
+    void setUp() {
+        jwtGenerator = new JwtGenerator(mock(SecurityVersionService.class));
+        ReflectionTestUtils.setField(jwtGenerator, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtGenerator, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtGenerator, "refreshExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtGenerator, "verifiedCacheMaxSize", 100);
+        jwtGenerator.init();
+    }
+
+    @Test
+    void acceptsAValidHs512Token() {
+        String token = token().claim("roles", List.of("ROLE_EMPLOYER")).claim(JwtGenerator.SECURITY_VERSION_CLAIM, 3)
+                .signWith(key, SignatureAlgorithm.HS512).compact();
+
+        TokenValidationResult result = jwtGenerator.checkToken(token);
+        assertEquals(TokenStatus.VALID, result.getStatus());
+        assertEquals("employer@test.sn", result.getToken().getSubject());
+        assertEquals(List.of("ROLE_EMPLOYER"), result.getToken().getRoles());
+        // Deuxième vérification servie par le cache
+        assertEquals(TokenStatus.VALID, jwtGenerator.checkToken(token).getStatus());
+    }
+
+    @Test
+    void rejectsUnsignedTokens() {
+        String unsigned = token().compact();
+        assertEquals(TokenStatus.UNSUPPORTED, jwtGenerator.checkToken(unsigned).getStatus());
+    }
+
+    @Test
+    void rejectsOtherAlgorithms() {
+        // HS256 avec une autre clé : signature invalide
+        Key otherKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        assertEquals(TokenStatus.BAD_SIGNATURE,
+                jwtGenerator.checkToken(token().signWith(otherKey, SignatureAlgorithm.HS256).compact()).getStatus());
+        // HS256 avec la bonne clé : signature correcte mais algorithme refusé
+        assertEquals(TokenStatus.UNSUPPORTED,
+                jwtGenerator.checkToken(token().signWith(key, SignatureAlgorithm.HS256).compact()).getStatus());
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        String token = token().signWith(key, SignatureAlgorithm.HS512).compact();
+        int signatureStart = token.lastIndexOf('.') + 1;
+
+        char[] signature = token.toCharArray();
+        int middle = signatureStart + 10;
+        signature[middle] = signature[middle] == 'A' ? 'B' : 'A';
+        assertEquals(TokenStatus.BAD_SIGNATURE, jwtGenerator.checkToken(new String(signature)).getStatus());
+
+        String otherPayload = token().setSubject("admin@test.sn").signWith(key, SignatureAlgorithm.HS512).compact();
+        String spliced = token.substring(0, token.indexOf('.'))
+                + otherPayload.substring(otherPayload.indexOf('.'), otherPayload.lastIndexOf('.'))
+                + token.substring(token.lastIndexOf('.'));
+        assertEquals(TokenStatus.VALID, jwtGenerator.checkToken(otherPayload).getStatus());
+        assertEquals(TokenStatus.BAD_SIGNATURE, jwtGenerator.checkToken(spliced).getStatus());
+    }
+
+    @Test
+    void rejectsTruncatedAndOversizedTokens() {
+        String token = token().signWith(key, SignatureAlgorithm.HS512).compact();
+
+        assertEquals(TokenStatus.BAD_SIGNATURE, jwtGenerator.checkToken(token.substring(0, token.length() - 8)).getStatus());
+        assertEquals(TokenStatus.MALFORMED, jwtGenerator.checkToken(token.substring(0, token.lastIndexOf('.'))).getStatus());
+        assertEquals(TokenStatus.MALFORMED, jwtGenerator.checkToken(token + ".extra").getStatus());
+        assertEquals(TokenStatus.MALFORMED, jwtGenerator.checkToken("abc").getStatus());
+        assertEquals(TokenStatus.MALFORMED, jwtGenerator.checkToken("a b.c.d").getStatus());
+        assertEquals(TokenStatus.EMPTY, jwtGenerator.checkToken("").getStatus());
+
+        String oversized = token().claim("padding", "x".repeat(9000)).signWith(key, SignatureAlgorithm.HS512).compact();
+        assertEquals(TokenStatus.MALFORMED, jwtGenerator.checkToken(oversized).getStatus());
+    }
+
+    @Test
+    void checksExpirationAndNotBeforeWithoutClockSkew() {
+        long now = System.currentTimeMillis();
+        String expired = token().setExpiration(new Date(now - 1_000))
+                .signWith(key, SignatureAlgorithm.HS512).compact();
+        String premature = token().setNotBefore(new Date(now + 60_000))
+                .signWith(key, SignatureAlgorithm.HS512).compact();
+
+        assertEquals(TokenStatus.EXPIRED, jwtGenerator.checkToken(expired).getStatus());
+        assertEquals(TokenStatus.PREMATURE, jwtGenerator.checkToken(premature).getStatus());
+        assertThrows(ExpiredJwtException.class, () -> jwtGenerator.verifyToken(expired));
+        assertThrows(PrematureJwtException.class, () -> jwtGenerator.verifyToken(premature));
+    }
+
+    @Test
+    void rejectsCompressedTokensAndCriticalHeaders() {
+        String compressed = token().compressWith(CompressionCodecs.DEFLATE)
+                .signWith(key, SignatureAlgorithm.HS512).compact();
+        String critical = token().setHeaderParam("crit", List.of("exp"))
+                .signWith(key, SignatureAlgorithm.HS512).compact();
+
+        assertEquals(TokenStatus.UNSUPPORTED, jwtGenerator.checkToken(compressed).getStatus());
+        assertEquals(TokenStatus.UNSUPPORTED, jwtGenerator.checkToken(critical).getStatus());
+    }
+
+    private JwtBuilder token() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject("employer@test.sn")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 3_600_000));
+    }
+}
@@ -0,0 +1,36 @@
+package com.solutionrh.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.SQLException;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.solutionrh.dao.EmployerRepository;
+
+class EmployerRegistrationServiceTest {
+
+    @Test
+    void recognizesDuplicatesByUniqueConstraintName() {
+        assertEquals(EmployerRepository.DUPLICATE_NINEA, conflictOf("employer.uk_employer_ninea"));
+        assertEquals(EmployerRepository.DUPLICATE_EMAIL, conflictOf("employer.UK_EMPLOYER_PROFESSIONAL_EMAIL"));
+        assertEquals(EmployerRepository.DUPLICATE_USERNAME, conflictOf("users.uk_users_username"));
+    }
+
+    @Test
+    void ignoresOtherIntegrityViolations() {
+        assertNull(conflictOf("fk_employer_roles_role"));
+        assertNull(conflictOf(null));
+        assertNull(EmployerRegistrationService.conflictOf(new DataIntegrityViolationException("Valeur trop longue",
+                new DataException("Data too long for column 'company_name'", new SQLException()))));
+    }
+
+    private static String conflictOf(String constraintName) {
+        return EmployerRegistrationService.conflictOf(new DataIntegrityViolationException("Violation",
+                new ConstraintViolationException("Violation", new SQLException(), constraintName)));
+    }
+}
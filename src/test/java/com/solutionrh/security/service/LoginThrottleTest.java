@@ -0,0 +1,72 @@
+package com.solutionrh.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class LoginThrottleTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    private LoginThrottle newThrottle() {
+        return new LoginThrottle(true,
+                new LoginThrottle.BucketPolicy(5, 5),
+                new LoginThrottle.BucketPolicy(20, 20),
+                clock::get);
+    }
+
+    @Test
+    void rejectsUsernameOverCapacityAndRefillsOverTime() {
+        LoginThrottle throttle = newThrottle();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, throttle.tryAcquire("employer@test.sn", "10.0.0." + i));
+        }
+        long retryAfter = throttle.tryAcquire("Employer@test.sn", "10.0.0.99");
+        assertTrue(retryAfter > 0);
+
+        // 5 jetons par minute : un jeton après 12 secondes
+        clock.addAndGet(12_000L);
+        assertEquals(0, throttle.tryAcquire("employer@test.sn", "10.0.0.99"));
+    }
+
+    @Test
+    void rejectsIpOverCapacityWhateverTheUsername() {
+        LoginThrottle throttle = newThrottle();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0, throttle.tryAcquire("user" + i + "@test.sn", "192.168.1.1"));
+        }
+        assertTrue(throttle.tryAcquire("other@test.sn", "192.168.1.1") > 0);
+        assertEquals(0, throttle.tryAcquire("other@test.sn", "192.168.1.2"));
+    }
+
+    @Test
+    void idleBucketsAreExpiredByTheTimeWheel() {
+        LoginThrottle throttle = newThrottle();
+
+        for (int i = 0; i < 100; i++) {
+            throttle.tryAcquire("user" + i + "@test.sn", "10.1.0." + i);
+        }
+        assertEquals(200, throttle.trackedKeys());
+
+        clock.addAndGet(70_000L);
+        throttle.tryAcquire("late@test.sn", "10.2.0.1");
+        assertEquals(2, throttle.trackedKeys());
+    }
+
+    @Test
+    void rotatingIpsDoNotBypassTheUsernameLimit() {
+        LoginThrottle throttle = newThrottle();
+        for (int i = 0; i < 5; i++) {
+            throttle.tryAcquire("victim@test.sn", "203.0.113." + i);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(throttle.tryAcquire("victim@test.sn", "198.51.100." + (i & 15)) > 0);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.solutionrh.security.service.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.solutionrh.security.service.LoginThrottle;
+
+/**
+ * Banc de charge (hors suite de tests, exclu de surefire) : coût d'une tentative de connexion refusée par
+ * {@link LoginThrottle} comparé à une vérification BCrypt, seul travail qu'une tentative coûtait auparavant.
+ * <p>
+ * Exécution après {@code mvn test-compile} :
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.solutionrh.security.service.bench.LoginThrottleBenchmark [threads] [secondes]
+ * </pre>
+ */
+public final class LoginThrottleBenchmark {
+
+    private static final String VICTIM = "victim@test.sn";
+
+    private LoginThrottleBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long durationMillis = (args.length > 1 ? Long.parseLong(args[1]) : 5) * 1000L;
+
+        // Seau du nom d'utilisateur vidé : toutes les tentatives suivantes sont refusées avant BCrypt
+        LoginThrottle throttle = new LoginThrottle(true, 5, 5, 1_000_000, 1_000_000);
+        for (int i = 0; i < 5; i++) {
+            throttle.tryAcquire(VICTIM, "203.0.113." + i);
+        }
+
+        System.out.printf("Préchauffage (%d thread(s))...%n", threads);
+        run(throttle, threads, Math.max(1000L, durationMillis / 2));
+        Result rejected = run(throttle, threads, durationMillis);
+        System.out.printf("Tentatives refusées : %,d en %d ms (%,d acceptée(s)), %.3f µs par tentative et par thread%n",
+                rejected.rejected, durationMillis, rejected.accepted,
+                durationMillis * 1000.0 * threads / Math.max(1, rejected.rejected));
+
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        String hash = encoder.encode("motdepasse");
+        int rounds = 20;
+        for (int i = 0; i < 3; i++) {
+            encoder.matches("mauvais", hash);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            encoder.matches("mauvais", hash);
+        }
+        double bcryptMillis = (System.nanoTime() - start) / 1_000_000.0 / rounds;
+        System.out.printf("Vérification BCrypt (coût 10) : %.2f ms par tentative%n", bcryptMillis);
+    }
+
+    private static Result run(LoginThrottle throttle, int threads, long durationMillis) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long deadline = System.currentTimeMillis() + durationMillis;
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    long rejected = 0;
+                    long accepted = 0;
+                    int i = 0;
+                    while ((i & 1023) != 0 || System.currentTimeMillis() < deadline) {
+                        // Adresses tournantes : le refus vient du seau du nom d'utilisateur
+                        if (throttle.tryAcquire(VICTIM, "198.51." + thread + "." + (i & 255)) > 0) {
+                            rejected++;
+                        } else {
+                            accepted++;
+                        }
+                        i++;
+                    }
+                    return new long[] { rejected, accepted };
+                }));
+            }
+            Result result = new Result();
+            for (Future<long[]> future : futures) {
+                long[] counts = future.get();
+                result.rejected += counts[0];
+                result.accepted += counts[1];
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class Result {
+        private long rejected;
+        private long accepted;
+    }
+}
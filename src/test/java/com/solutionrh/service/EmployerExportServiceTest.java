@@ -0,0 +1,31 @@
+package com.solutionrh.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class EmployerExportServiceTest {
+
+    @Test
+    void neutralizesFormulasButKeepsSignedNumbers() {
+        assertEquals("'=HYPERLINK(\"http://x\")", EmployerExportService.neutralizeFormula("=HYPERLINK(\"http://x\")"));
+        assertEquals("'@SUM(A1)", EmployerExportService.neutralizeFormula("@SUM(A1)"));
+        assertEquals("'+cmd|' /C calc'!A0", EmployerExportService.neutralizeFormula("+cmd|' /C calc'!A0"));
+        assertEquals("'-2+3", EmployerExportService.neutralizeFormula("-2+3"));
+        assertEquals("'\tx", EmployerExportService.neutralizeFormula("\tx"));
+
+        assertEquals("+221770001122", EmployerExportService.neutralizeFormula("+221770001122"));
+        assertEquals("-12,5", EmployerExportService.neutralizeFormula("-12,5"));
+        assertEquals("Sonatel", EmployerExportService.neutralizeFormula("Sonatel"));
+        assertEquals("", EmployerExportService.neutralizeFormula(""));
+    }
+
+    @Test
+    void importRestoresExportedValues() {
+        for (String value : List.of("=1+1", "@SUM(A1)", "+cmd", "-2+3", "+221770001122", "Sonatel", "'quoted")) {
+            assertEquals(value, EmployerExportService.restoreFormula(EmployerExportService.neutralizeFormula(value)));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.solutionrh.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.dto.EmployerSearchHitDto;
+
+class EmployerNameIndexTest {
+
+    private EmployerRepository employerRepository;
+    private EmployerNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        employerRepository = mock(EmployerRepository.class);
+        when(employerRepository.findNameIndexRowsAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+        index = new EmployerNameIndex(employerRepository);
+        ReflectionTestUtils.setField(index, "minScore", 0.2);
+        index.load();
+    }
+
+    @Test
+    void normalizesAccentsCaseAndSeparators() {
+        assertEquals("societe generale du senegal", EmployerNameIndex.normalize("  Société  Générale -- du Sénégal. "));
+        assertEquals("", EmployerNameIndex.normalize(null));
+        assertEquals("", EmployerNameIndex.normalize("--"));
+    }
+
+    @Test
+    void extractsDistinctPaddedTrigrams() {
+        // " aaaa " : " aa", "aaa", "aa " (le trigramme "aaa" n'est compté qu'une fois)
+        assertEquals(3, EmployerNameIndex.trigramsOf("aaaa").length);
+        assertEquals(0, EmployerNameIndex.trigramsOf("").length);
+        // Les débuts et fins de mots comptent : " ab", "ab "
+        assertEquals(2, EmployerNameIndex.trigramsOf("ab").length);
+        assertArrayEquals(EmployerNameIndex.trigramsOf("ab"), EmployerNameIndex.trigramsOf(EmployerNameIndex.normalize("AB!")));
+    }
+
+    @Test
+    void boundsTrigramsPerTextSoOverlapCountersFitInAByte() {
+        StringBuilder longName = new StringBuilder();
+        for (char c = 'a'; c <= 'z'; c++) {
+            for (char d = 'a'; d <= 'z'; d += 5) {
+                longName.append(c).append(d).append('x');
+            }
+        }
+        assertEquals(120, EmployerNameIndex.trigramsOf(longName.toString()).length);
+
+        // Une requête identique au nom compte 120 trigrammes communs sans débordement du compteur
+        index.put(1L, longName.toString(), null);
+        List<EmployerSearchHitDto> hits = index.search(longName.toString(), 5);
+        assertEquals(1, hits.size());
+        assertEquals(1.0, hits.get(0).getScore());
+    }
+
+    @Test
+    void ranksNamesWithTyposBySimilarity() {
+        index.put(1L, "Sonatel", "001");
+        index.put(2L, "Senelec", "002");
+        index.put(3L, "Sonatel Mobiles", "003");
+        index.put(4L, "Banque de l'Habitat", "004");
+
+        List<Long> ids = ids(index.search("sonatl", 10));
+        assertEquals(List.of(1L, 3L), ids);
+        assertEquals(List.of(4L), ids(index.search("Banque Habitat", 10)));
+        assertEquals(1, index.search("sonatel", 1).size());
+    }
+
+    @Test
+    void returnsNineaPrefixMatchesFirst() {
+        index.put(1L, "Sonatel", "0012345A2");
+        index.put(2L, "Senelec", "0012399B1");
+        index.put(3L, "Transports 0012", "0098765C3");
+
+        List<EmployerSearchHitDto> hits = index.search("00123", 10);
+        assertEquals(List.of(1L, 2L), ids(hits).subList(0, 2));
+        assertTrue(hits.subList(0, 2).stream().allMatch(hit -> hit.getScore() == 1.0));
+        assertEquals(List.of(2L), ids(index.search("0012399b", 10)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reusesTheSlotOfARemovedEmployer() {
+        index.put(1L, "Sonatel", "001");
+        index.put(2L, "Senelec", "002");
+        Map<Long, Integer> slots = (Map<Long, Integer>) ReflectionTestUtils.getField(index, "slots");
+        int removedSlot = slots.get(1L);
+
+        index.remove(1L);
+        index.put(3L, "Orange Finances", "003");
+
+        assertEquals(removedSlot, slots.get(3L));
+        assertEquals(2, ReflectionTestUtils.getField(index, "slotCount"));
+        assertTrue(index.search("sonatel", 10).isEmpty());
+        assertTrue(index.search("001", 10).isEmpty());
+        assertEquals(List.of(3L), ids(index.search("orange finance", 10)));
+    }
+
+    @Test
+    void refreshReconcilesChangesMadeOnOtherNodes() {
+        index.put(1L, "Sonatel", "001");
+        index.put(2L, "Senelec", "002");
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { 2L, "Senelec Energie", "002" });
+        rows.add(new Object[] { 5L, "Orange Finances", "005" });
+        when(employerRepository.findNameIndexRowsAfter(eq(0L), any(Pageable.class))).thenReturn(rows);
+
+        index.refresh();
+
+        assertTrue(index.search("sonatel", 10).isEmpty());
+        assertEquals("Senelec Energie", index.search("002", 10).get(0).getCompanyName());
+        assertEquals(List.of(5L), ids(index.search("orange", 10)));
+    }
+
+    private static List<Long> ids(List<EmployerSearchHitDto> hits) {
+        return hits.stream().map(EmployerSearchHitDto::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,100 @@
+package com.solutionrh.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.solutionrh.dao.DocumentBlobRepository;
+import com.solutionrh.dao.EmployerRepository;
+import com.solutionrh.service.storage.StorageBackend;
+
+class OrphanFileSweeperTest {
+
+    @TempDir
+    Path root;
+
+    private OrphanFileSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        EmployerRepository employerRepository = mock(EmployerRepository.class);
+        // Seuls les fichiers nommés "keep" sont référencés
+        when(employerRepository.findReferencedDocumentPaths(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> paths = invocation.getArgument(0);
+            return paths.stream().filter(path -> path.contains("keep")).collect(Collectors.toList());
+        });
+        StorageBackend storageBackend = mock(StorageBackend.class);
+        when(storageBackend.localPath("")).thenReturn(Optional.of(root));
+
+        sweeper = new OrphanFileSweeper(employerRepository, mock(DocumentBlobRepository.class), storageBackend);
+        ReflectionTestUtils.setField(sweeper, "enabled", true);
+        ReflectionTestUtils.setField(sweeper, "graceMillis", 3_600_000L);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(sweeper, "filesPerSecond", 0);
+        ReflectionTestUtils.setField(sweeper, "maxFilesPerRun", 2);
+    }
+
+    @Test
+    void resumesAfterTheCheckpointEvenWhenTheCheckpointFileWasQuarantined() throws IOException {
+        for (String path : List.of("c/4.pdf", "a/2.pdf", "b/keep.pdf", "a/1.pdf", "b/3.pdf")) {
+            createOldFile(path);
+        }
+        Path checkpoint = root.resolve(OrphanFileSweeper.SWEEPER_DIR).resolve("checkpoint");
+
+        sweeper.sweep();
+        assertQuarantined("a/1.pdf", "a/2.pdf");
+        assertEquals("a/2.pdf", Files.readString(checkpoint));
+        assertFalse(Files.exists(root.resolve("a/2.pdf")));
+
+        // Le point de reprise n'existe plus dans l'arborescence : le passage reprend quand même après lui
+        sweeper.sweep();
+        assertQuarantined("b/3.pdf");
+        assertTrue(Files.exists(root.resolve("b/keep.pdf")));
+        assertTrue(Files.exists(root.resolve("c/4.pdf")), "Le passage s'arrête au nombre maximal de fichiers");
+        assertEquals("b/keep.pdf", Files.readString(checkpoint));
+
+        sweeper.sweep();
+        assertQuarantined("c/4.pdf");
+        assertFalse(Files.exists(checkpoint), "Le cycle terminé doit effacer le point de reprise");
+    }
+
+    @Test
+    void comparesPathsInVisitOrder() {
+        assertTrue(OrphanFileSweeper.comparePaths("a", "a/x.pdf") < 0);
+        assertTrue(OrphanFileSweeper.comparePaths("a/z.pdf", "a-b/x.pdf") < 0);
+        assertTrue(OrphanFileSweeper.comparePaths("b/1.pdf", "a/9/9.pdf") > 0);
+        assertEquals(0, OrphanFileSweeper.comparePaths("a/b.pdf", "a/b.pdf"));
+    }
+
+    private void createOldFile(String relativePath) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, relativePath);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 86_400_000L));
+    }
+
+    private void assertQuarantined(String... relativePaths) {
+        for (String relativePath : relativePaths) {
+            assertFalse(Files.exists(root.resolve(relativePath)), relativePath + " doit avoir quitté l'arborescence");
+            assertTrue(Files.exists(root.resolve(OrphanFileSweeper.QUARANTINE_DIR).resolve(relativePath)),
+                    relativePath + " doit être en quarantaine");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.solutionrh.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.solutionrh.exception.ResourceNotFoundException;
+import com.solutionrh.exception.UploadOffsetMismatchException;
+import com.solutionrh.service.FileStorageService.StagedFile;
+import com.solutionrh.service.UploadSessionService.UploadSession;
+
+class UploadSessionServiceTest {
+
+    private static final byte[] CONTENT = "%PDF-1.4 test".getBytes();
+
+    @TempDir
+    Path staging;
+
+    private UploadSessionService uploadSessionService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileStorageService fileStorageService = mock(FileStorageService.class);
+        when(fileStorageService.stagingDirectory()).thenReturn(staging);
+        when(fileStorageService.extensionOf(anyString())).thenReturn(".pdf");
+        when(fileStorageService.sha256(any(Path.class))).thenReturn("sha");
+        // TTL nul : tout envoi non réservé est expiré à la prochaine purge
+        uploadSessionService = new UploadSessionService(fileStorageService, DataSize.ofMegabytes(1), 10, 5, 0, "");
+    }
+
+    @Test
+    void failedRegistrationReturnsTheUploadToTheClient() throws IOException {
+        String id = completedUpload();
+
+        StagedFile staged = uploadSessionService.claim(id, "ninea");
+        assertEquals("ninea", staged.getCategory());
+        // Une seconde inscription ne peut pas utiliser le même envoi, ni l'annuler ou le laisser expirer
+        assertThrows(UploadOffsetMismatchException.class, () -> uploadSessionService.claim(id, "rccm"));
+        uploadSessionService.cancel(id);
+        uploadSessionService.expireIdleSessions();
+
+        uploadSessionService.unclaim(id);
+        assertTrue(Files.exists(staged.getPath()));
+        assertEquals(staged.getPath(), uploadSessionService.claim(id, "ninea").getPath());
+    }
+
+    @Test
+    void releaseForgetsTheUploadOnceRegistered() throws IOException {
+        String id = completedUpload();
+        StagedFile staged = uploadSessionService.claim(id, "ninea");
+        Files.delete(staged.getPath()); // Promu vers son emplacement définitif
+
+        uploadSessionService.release(id);
+
+        assertThrows(ResourceNotFoundException.class, () -> uploadSessionService.get(id));
+        try (var files = Files.walk(staging)) {
+            assertFalse(files.anyMatch(path -> path.toString().endsWith(UploadSessionService.SESSION_SUFFIX)));
+        }
+    }
+
+    @Test
+    void unclaimDropsAnUploadAlreadyPromoted() throws IOException {
+        String id = completedUpload();
+        StagedFile staged = uploadSessionService.claim(id, "ninea");
+        Files.delete(staged.getPath());
+
+        uploadSessionService.unclaim(id);
+
+        assertThrows(ResourceNotFoundException.class, () -> uploadSessionService.get(id));
+    }
+
+    private String completedUpload() throws IOException {
+        UploadSession session = uploadSessionService.create("ninea.pdf", CONTENT.length, "203.0.113.1");
+        uploadSessionService.appendChunk(session.getId(), 0, new ByteArrayInputStream(CONTENT));
+        return uploadSessionService.complete(session.getId()).getId();
+    }
+}
@@ -0,0 +1,242 @@
+package com.solutionrh.service.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+class S3StorageBackendTest {
+
+    private static final long PART_SIZE = S3StorageBackend.MIN_PART_SIZE;
+
+    private final FakeS3Client s3 = new FakeS3Client();
+    private final S3StorageBackend backend = new S3StorageBackend(s3, "documents", "solutionrh", PART_SIZE);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void smallObjectIsStoredWithASinglePutAndReadByRange() throws IOException {
+        byte[] content = randomBytes(1000);
+        backend.put("blobs/ab/cd/doc.pdf", new ByteArrayInputStream(content), content.length);
+
+        assertEquals(1, s3.putCount.get());
+        assertEquals(0, s3.multipartCount.get());
+        assertTrue(s3.objects.containsKey("solutionrh/blobs/ab/cd/doc.pdf"));
+        assertEquals(content.length, backend.stat("blobs/ab/cd/doc.pdf").orElseThrow().getSize());
+        try (InputStream in = backend.get("blobs/ab/cd/doc.pdf", 100, 50)) {
+            assertArrayEquals(Arrays.copyOfRange(content, 100, 150), in.readAllBytes());
+        }
+
+        backend.delete("blobs/ab/cd/doc.pdf");
+        assertTrue(backend.stat("blobs/ab/cd/doc.pdf").isEmpty());
+    }
+
+    @Test
+    void largeFileIsSentAsMultipartUploadAndSourceIsRemoved() throws IOException {
+        byte[] content = randomBytes((int) (PART_SIZE * 2 + 12345));
+        Path source = tempDir.resolve("staged.pdf");
+        Files.write(source, content);
+
+        backend.put("ninea/1/staged.pdf", source);
+
+        assertEquals(1, s3.multipartCount.get());
+        assertEquals(3, s3.lastPartCount);
+        assertTrue(s3.uploads.isEmpty());
+        assertArrayEquals(content, s3.objects.get("solutionrh/ninea/1/staged.pdf"));
+        assertFalse(Files.exists(source));
+    }
+
+    @Test
+    void largeStreamIsSentAsMultipartUpload() throws IOException {
+        byte[] content = randomBytes((int) (PART_SIZE + 1));
+
+        backend.put("rccm/1/doc.pdf", new ByteArrayInputStream(content), content.length);
+
+        assertEquals(2, s3.lastPartCount);
+        assertArrayEquals(content, s3.objects.get("solutionrh/rccm/1/doc.pdf"));
+    }
+
+    @Test
+    void failedPartAbortsTheMultipartUpload() throws IOException {
+        byte[] content = randomBytes((int) (PART_SIZE * 2));
+        Path source = tempDir.resolve("staged.pdf");
+        Files.write(source, content);
+        s3.failOnPart = 2;
+
+        assertThrows(S3Exception.class, () -> backend.put("ninea/1/staged.pdf", source));
+
+        assertEquals(1, s3.abortCount.get());
+        assertTrue(s3.uploads.isEmpty());
+        assertFalse(s3.objects.containsKey("solutionrh/ninea/1/staged.pdf"));
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * S3 en mémoire : objets et envois multipart, avec les contraintes de taille de partie de S3
+     */
+    static class FakeS3Client implements S3Client {
+
+        final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        final Map<String, TreeMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        final AtomicInteger putCount = new AtomicInteger();
+        final AtomicInteger multipartCount = new AtomicInteger();
+        final AtomicInteger abortCount = new AtomicInteger();
+        volatile int lastPartCount;
+        volatile int failOnPart = -1;
+
+        @Override
+        public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+            putCount.incrementAndGet();
+            objects.put(request.key(), read(body));
+            return PutObjectResponse.builder().eTag("\"etag\"").build();
+        }
+
+        @Override
+        public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+            String uploadId = "upload-" + multipartCount.incrementAndGet();
+            uploads.put(uploadId, new TreeMap<>());
+            return CreateMultipartUploadResponse.builder().uploadId(uploadId).build();
+        }
+
+        @Override
+        public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+            if (request.partNumber() == failOnPart) {
+                throw S3Exception.builder().statusCode(500).message("échec simulé").build();
+            }
+            byte[] part = read(body);
+            assertEquals(request.contentLength().longValue(), part.length);
+            uploads.get(request.uploadId()).put(request.partNumber(), part);
+            return UploadPartResponse.builder().eTag("part-" + request.partNumber()).build();
+        }
+
+        @Override
+        public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+            TreeMap<Integer, byte[]> parts = uploads.remove(request.uploadId());
+            int total = 0;
+            int index = 0;
+            for (CompletedPart completed : request.multipartUpload().parts()) {
+                byte[] part = parts.get(completed.partNumber());
+                assertEquals("part-" + completed.partNumber(), completed.eTag());
+                if (++index < parts.size()) {
+                    assertTrue(part.length >= S3StorageBackend.MIN_PART_SIZE, "Partie trop petite pour S3");
+                }
+                total += part.length;
+            }
+            byte[] object = new byte[total];
+            int position = 0;
+            for (byte[] part : parts.values()) {
+                System.arraycopy(part, 0, object, position, part.length);
+                position += part.length;
+            }
+            lastPartCount = parts.size();
+            objects.put(request.key(), object);
+            return CompleteMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+            abortCount.incrementAndGet();
+            uploads.remove(request.uploadId());
+            return AbortMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+            byte[] object = objects.get(request.key());
+            if (object == null) {
+                throw NoSuchKeyException.builder().statusCode(404).build();
+            }
+            int start = 0;
+            int end = object.length - 1;
+            if (request.range() != null) {
+                String[] bounds = request.range().substring("bytes=".length()).split("-");
+                start = Integer.parseInt(bounds[0]);
+                end = Math.min(end, Integer.parseInt(bounds[1]));
+            }
+            byte[] range = Arrays.copyOfRange(object, start, end + 1);
+            return new ResponseInputStream<>(GetObjectResponse.builder().contentLength((long) range.length).build(),
+                    AbortableInputStream.create(new ByteArrayInputStream(range)));
+        }
+
+        @Override
+        public HeadObjectResponse headObject(HeadObjectRequest request) {
+            byte[] object = objects.get(request.key());
+            if (object == null) {
+                throw NoSuchKeyException.builder().statusCode(404).build();
+            }
+            return HeadObjectResponse.builder().contentLength((long) object.length)
+                    .lastModified(Instant.now()).eTag("\"etag\"").build();
+        }
+
+        @Override
+        public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+            objects.remove(request.key());
+            return DeleteObjectResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static byte[] read(RequestBody body) {
+            try (InputStream in = body.contentStreamProvider().newStream()) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}